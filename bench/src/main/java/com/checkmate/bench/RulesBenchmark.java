@@ -0,0 +1,124 @@
+/**
+ * The RulesBenchmark class measures the rule checks made on every click of a
+ * game: reading a tile, validating a move, testing a King for check, testing
+ * for the end of the game and testing a square for attack. Every check runs
+ * over a fixed opening, middlegame and endgame position. Run it with the GC
+ * profiler to see the allocation rate next to the throughput:
+ *
+ * java -jar target/benchmarks.jar RulesBenchmark -prof gc
+ */
+
+package com.checkmate.bench;
+
+import com.checkmate.core.Board;
+import com.checkmate.core.CheckMate;
+import com.checkmate.core.Fen;
+import com.checkmate.core.Move;
+import com.checkmate.pieces.Piece;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgs = "-Djava.awt.headless=true")
+public class RulesBenchmark {
+
+    static final String OPENING = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+    static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    Board board;
+    CheckMate checkMate;
+
+    // Every pair of a piece of the player to move and a tile, as a click would
+    // make it, valid or not
+    Move[] candidates;
+
+    // A move of the player who moved last, as isGameOver is given after a move
+    Move lastMove;
+
+    boolean isWhiteTurn;
+
+    // Moves through the tiles and the candidates from one call to the next
+    int square;
+    int candidate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = new Board();
+        switch (position) {
+            case "opening":
+                Fen.load(board.state, OPENING);
+                break;
+            case "middlegame":
+                Fen.load(board.state, MIDDLEGAME);
+                break;
+            case "endgame":
+                Fen.load(board.state, ENDGAME);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown position: " + position);
+        }
+        checkMate = new CheckMate(board.state);
+        isWhiteTurn = board.state.isWhiteTurn();
+
+        List<Move> moves = new ArrayList<>();
+        for (Piece piece : board.state.getPieces()) {
+            if (piece.isWhite == isWhiteTurn) {
+                for (int row = 0; row < 8; row++)
+                    for (int column = 0; column < 8; column++)
+                        moves.add(new Move(board.state, piece, column, row));
+            } else if (lastMove == null) {
+                lastMove = new Move(board.state, piece, piece.column, piece.row);
+            }
+        }
+        candidates = moves.toArray(new Move[0]);
+    }
+
+    @Benchmark
+    public Piece getPiece() {
+        square = (square + 1) & 63;
+        return board.getPiece(square & 7, square >>> 3);
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        candidate = candidate + 1 == candidates.length ? 0 : candidate + 1;
+        return board.isValidMove(candidates[candidate]);
+    }
+
+    @Benchmark
+    public boolean isKingChecked() {
+        return checkMate.isKingChecked(isWhiteTurn);
+    }
+
+    @Benchmark
+    public boolean isGameOver() {
+        return board.isGameOver(lastMove);
+    }
+
+    @Benchmark
+    public boolean isSquareUnderAttack() {
+        square = (square + 1) & 63;
+        return board.isSquareUnderAttack(square & 7, square >>> 3, !isWhiteTurn);
+    }
+}
@@ -15,7 +15,8 @@ if [ $? -eq 0 ]; then
     echo "Running CheckMate..."
     # Run from bin directory, including resources in classpath
     # Main class is com.checkmate.core.Main
-    java -cp bin:src/resources com.checkmate.core.Main
+    # Arguments are passed on, e.g. ./run.sh --perft --depth 5
+    java -cp bin:src/resources com.checkmate.core.Main "$@"
 else
     echo "Compilation failed."
 fi
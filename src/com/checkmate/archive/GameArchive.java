@@ -0,0 +1,197 @@
+/**
+ * The GameArchive class reads a binary archive of games written by
+ * GameArchiveWriter. The archive is a fraction of the size of the same games in
+ * PGN and needs no parsing, and the file is mapped read-only rather than read,
+ * so it costs no heap and any game can be reached directly through the offset
+ * index at the end of the file.
+ *
+ * Layout, big-endian:
+ *
+ * header   int MAGIC, short VERSION, short 0
+ * game     short plies, byte result, byte tag count,
+ *          for each tag: short length, name in UTF-8, short length, value,
+ *          for each ply: short move, packed as in Move.encode
+ * index    long offset of each game
+ * trailer  long offset of the index, int number of games, int MAGIC
+ *
+ * A move of Move.encode fits 16 bits: 6 bits for each square and 3 for the
+ * promotion type. A file of one mapping is limited to 2 GB.
+ */
+
+package com.checkmate.archive;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GameArchive {
+
+    public static final int MAGIC = 0x434D4741;
+    public static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 8;
+    static final int TRAILER_SIZE = 16;
+
+    // Results of the game header, by their code
+    static final String[] RESULTS = { "*", "1-0", "0-1", "1/2-1/2" };
+
+    private final MappedByteBuffer buffer;
+    private final int index;
+    private final int games;
+
+    private GameArchive(MappedByteBuffer buffer, int index, int games) {
+        this.buffer = buffer;
+        this.index = index;
+        this.games = games;
+    }
+
+    /**
+     * Maps an archive file. The buffer is only read with absolute gets, so one
+     * archive can be read by many threads at once.
+     *
+     * @param file the archive file
+     * @return the archive
+     * @throws IOException if the file cannot be opened or mapped, or is not an
+     *                     archive
+     */
+    public static GameArchive open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE)
+                throw new IOException("Not a game archive: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            int trailer = (int) size - TRAILER_SIZE;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(trailer + 12) != MAGIC)
+                throw new IOException("Not a game archive: " + file);
+            if (buffer.getShort(4) != VERSION)
+                throw new IOException("Unknown game archive version " + buffer.getShort(4) + ": " + file);
+            return new GameArchive(buffer, (int) buffer.getLong(trailer), buffer.getInt(trailer + 8));
+        }
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return the number of games
+     */
+    public int size() {
+        return games;
+    }
+
+    /**
+     * Returns the number of moves of a game, counting the moves of both players.
+     *
+     * @param game the number of the game, from 0
+     * @return the number of plies
+     */
+    public int plies(int game) {
+        return buffer.getShort(offset(game)) & 0xFFFF;
+    }
+
+    /**
+     * Returns the result of a game.
+     *
+     * @param game the number of the game, from 0
+     * @return "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String result(int game) {
+        return RESULTS[buffer.get(offset(game) + 2)];
+    }
+
+    /**
+     * Returns the tags of a game, such as the names of the players.
+     *
+     * @param game the number of the game, from 0
+     * @return a new map of the tags, in the order they were written
+     */
+    public Map<String, String> tags(int game) {
+        int position = offset(game);
+        int count = buffer.get(position + 3) & 0xFF;
+        position += 4;
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = string(position);
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+            tags.put(name, string(position));
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+        }
+        return tags;
+    }
+
+    /**
+     * Returns one move of a game.
+     *
+     * @param game the number of the game, from 0
+     * @param ply  the number of the move, from 0
+     * @return the move packed as in Move.encode
+     */
+    public int move(int game, int ply) {
+        return buffer.getShort(firstMove(game) + 2 * ply) & 0xFFFF;
+    }
+
+    /**
+     * Returns the moves of a game.
+     *
+     * @param game the number of the game, from 0
+     * @return the moves packed as in Move.encode
+     */
+    public int[] moves(int game) {
+        int position = firstMove(game);
+        int[] moves = new int[plies(game)];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = buffer.getShort(position + 2 * i) & 0xFFFF;
+        return moves;
+    }
+
+    /**
+     * Plays a game up to a move from its starting position, the one of its FEN
+     * tag or else the standard one. The moves made can be taken back with
+     * unmakeMove, and the game can be shown with new Board(state).
+     *
+     * @param game the number of the game, from 0
+     * @param ply  the number of moves to play, at most plies(game)
+     * @return the game after the moves
+     */
+    public GameState replay(int game, int ply) {
+        GameState state = new GameState();
+        Fen.load(state, tags(game).getOrDefault("FEN", Fen.START_POSITION));
+        int position = firstMove(game);
+        for (int i = 0; i < ply; i++)
+            state.makeMove(buffer.getShort(position + 2 * i) & 0xFFFF);
+        return state;
+    }
+
+    // Find the start of a game in the index
+    private int offset(int game) {
+        if (game < 0 || game >= games)
+            throw new IndexOutOfBoundsException("Game " + game + " of " + games);
+        return (int) buffer.getLong(index + 8 * game);
+    }
+
+    // Find the first move of a game, after its tags
+    private int firstMove(int game) {
+        int position = offset(game);
+        int count = buffer.get(position + 3) & 0xFF;
+        position += 4;
+        for (int i = 0; i < 2 * count; i++)
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+        return position;
+    }
+
+    // Read a string written with its length in a short
+    private String string(int position) {
+        byte[] bytes = new byte[buffer.getShort(position) & 0xFFFF];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(position + 2 + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
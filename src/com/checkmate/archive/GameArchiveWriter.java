@@ -0,0 +1,130 @@
+/**
+ * The GameArchiveWriter class writes a binary archive of games in the layout
+ * read by GameArchive. Games are added one at a time and streamed to the file;
+ * only their offsets are kept until the index is written by close.
+ */
+
+package com.checkmate.archive;
+
+import com.checkmate.pgn.PgnGame;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+public class GameArchiveWriter implements AutoCloseable {
+
+    private final DataOutputStream out;
+    private long position;
+    private long[] offsets = new long[1024];
+    private int games;
+
+    /**
+     * Creates an archive file, replacing any file of the same name.
+     *
+     * @param file the archive file
+     * @throws IOException if the file cannot be created
+     */
+    public GameArchiveWriter(Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(GameArchive.MAGIC);
+        out.writeShort(GameArchive.VERSION);
+        out.writeShort(0);
+        position = GameArchive.HEADER_SIZE;
+    }
+
+    /**
+     * Adds a game read from PGN. Its moves are replayed to be checked and
+     * packed, so an invalid game is not added.
+     *
+     * @param game the game
+     * @throws IOException              if the game cannot be written
+     * @throws IllegalArgumentException if a move of the game is not valid
+     */
+    public void add(PgnGame game) throws IOException {
+        add(game.tags, game.result, game.replay().getMoves());
+    }
+
+    /**
+     * Adds a game.
+     *
+     * @param tags   the tags of the game, with a FEN tag when it did not start
+     *               from the standard position; the Result tag is not kept, as
+     *               the result has a field of its own, nor are tags left
+     *               unknown with "?"
+     * @param result "1-0", "0-1", "1/2-1/2" or "*"
+     * @param moves  the moves packed as in Move.encode, such as the ones of
+     *               GameState.getMoves
+     * @throws IOException if the game cannot be written
+     */
+    public void add(Map<String, String> tags, String result, int[] moves) throws IOException {
+        if (moves.length > 0xFFFF)
+            throw new IllegalArgumentException("Too many moves: " + moves.length);
+        int resultCode = Arrays.asList(GameArchive.RESULTS).indexOf(result);
+        if (games == offsets.length)
+            offsets = Arrays.copyOf(offsets, games * 2);
+        offsets[games++] = position;
+
+        int tagCount = 0;
+        for (Map.Entry<String, String> tag : tags.entrySet())
+            if (isKept(tag) && tagCount < 0xFF)
+                tagCount++;
+        out.writeShort(moves.length);
+        out.writeByte(Math.max(resultCode, 0));
+        out.writeByte(tagCount);
+        position += 4;
+        int written = 0;
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isKept(tag) || written == tagCount)
+                continue;
+            writeString(tag.getKey());
+            writeString(tag.getValue());
+            written++;
+        }
+        for (int move : moves)
+            out.writeShort(move);
+        position += 2L * moves.length;
+    }
+
+    /**
+     * Returns the number of games added so far.
+     *
+     * @return the number of games
+     */
+    public int size() {
+        return games;
+    }
+
+    private static boolean isKept(Map.Entry<String, String> tag) {
+        return !tag.getKey().equals("Result") && !tag.getValue().equals("?");
+    }
+
+    // Write a string with its length in a short, cut to fit
+    private void writeString(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        out.writeShort(length);
+        out.write(bytes, 0, length);
+        position += 2 + length;
+    }
+
+    /**
+     * Writes the index and closes the file.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        long index = position;
+        for (int i = 0; i < games; i++)
+            out.writeLong(offsets[i]);
+        out.writeLong(index);
+        out.writeInt(games);
+        out.writeInt(GameArchive.MAGIC);
+        out.close();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * The Attacks class holds the squares every piece attacks from every square, as
+ * 64-bit masks indexed like Bitboard (row * 8 + column). The pieces that jump
+ * (King, Knight, Bishop and Pawn) have one mask per square. The pieces that
+ * slide (Rook and Queen) look their mask up in magic tables: the blockers on
+ * their lines are multiplied by a magic number whose top bits index a table of
+ * every possible answer, so no ray is walked when the game is played.
+ */
+
+package com.checkmate.core;
+
+public class Attacks {
+
+    // Squares attacked by a King, a Knight and a Bishop, indexed by square
+    static final long[] KING = new long[64];
+    static final long[] KNIGHT = new long[64];
+    static final long[] BISHOP = new long[64];
+
+    // Squares attacked by a Pawn, indexed by [color][square]. A Pawn takes the
+    // three tiles in front of it, straight ahead as well as diagonally.
+    static final long[][] PAWN = new long[2][64];
+
+    // Squares strictly between two squares of a straight line or a diagonal,
+    // indexed by [square][square], or 0 if the squares are not on one line
+    static final long[][] BETWEEN = new long[64][64];
+
+    // Magic tables of the straight lines and of the diagonals
+    private static final Magic[] STRAIGHT = new Magic[64];
+    private static final Magic[] DIAGONAL = new Magic[64];
+
+    // Magic numbers of every square, found once by trying sparse random numbers
+    // until one maps every set of blockers to a slot holding its attacks
+    private static final long[] STRAIGHT_MAGICS = {
+            0x9A80011020400081L, 0x8840004010002000L, 0x8100082004104100L,
+            0x0880041000080180L, 0x0600082200300421L, 0x0200212450020008L,
+            0x0400010844008210L, 0x0200003400705A01L, 0x0000802040008009L,
+            0x4181806000400080L, 0x1002801000802000L, 0x120100210010000CL,
+            0x01A4800800040080L, 0x0000808004000200L, 0x4411000200144100L,
+            0x004A000082006401L, 0xE090208000904000L, 0x0162818020104000L,
+            0x000186001420C200L, 0x06A8808008001001L, 0x028C808008000402L,
+            0x0001010008040002L, 0x402A2C0008010210L, 0x8A12020000810064L,
+            0x0140004080008020L, 0x20302000C0100940L, 0x0C01004100102000L,
+            0x0000082100100100L, 0x1004080080040080L, 0x0801000300080400L,
+            0x10B5000100040200L, 0x000500820004440DL, 0x4210400030800880L,
+            0x00C1804001802000L, 0x0020020010100400L, 0x8C000A0042001020L,
+            0x0004050011000800L, 0x0000040080800200L, 0x0022100104000208L,
+            0x0010050842000194L, 0x2402896040068005L, 0x0150004020004000L,
+            0x1020001000208080L, 0x6920080010008080L, 0x0041000800850010L,
+            0x114A010890220014L, 0x9600080190040002L, 0x000004510082002CL,
+            0x811102A444800100L, 0x0040100020004640L, 0x0020220411824200L,
+            0x20100028040040C0L, 0x8002002010040A00L, 0x082A020080040080L,
+            0x0002800100020080L, 0x5000040041008200L, 0x4204800041022039L,
+            0x0042812102001142L, 0x0540200009110241L, 0x002200200810C016L,
+            0x000200440850A002L, 0x2841000400080201L, 0xC040084090020104L,
+            0x0000110024108042L
+    };
+    private static final long[] DIAGONAL_MAGICS = {
+            0x00900A38091C0090L, 0x200202080A008080L, 0x9090242240508008L,
+            0x0004041080000000L, 0x0001104000802082L, 0x0226300420142802L,
+            0x0880481808084018L, 0x0001008D50081440L, 0x9000606012808102L,
+            0x0000021244012600L, 0x0100044104110081L, 0x10010440408000A0L,
+            0x0000662110158008L, 0x0021020110880402L, 0x402000A084104000L,
+            0x0066820204CA0840L, 0x20C0211002480112L, 0x0B02001002220C00L,
+            0x2004000800202600L, 0x0028020220811018L, 0x8D41001890401404L,
+            0x0082004100410420L, 0x0200800452101108L, 0x2A30801040441004L,
+            0x2004204551021000L, 0x0C81240160540400L, 0x81811000A10C0220L,
+            0x1020080005004148L, 0x0201001101004001L, 0x0601020009004104L,
+            0x022080800C220801L, 0x0882988881040292L, 0x301002600809A804L,
+            0x0854022000020481L, 0x8042080401220024L, 0x2000200500080090L,
+            0x0C40002020220080L, 0x4050100040042400L, 0xA004142060040100L,
+            0xC031020208208450L, 0x0081100944002020L, 0xA013A21002001082L,
+            0x010200802081C400L, 0x1C20084202032020L, 0x0000400812000110L,
+            0x4030101000200240L, 0x200404840401A040L, 0x6082840042044280L,
+            0x0002110420448004L, 0x040A004202100640L, 0x1820004044100600L,
+            0x0000400084040140L, 0x01020C4208220000L, 0x0600C004080A24C8L,
+            0x1010045054085480L, 0x0008080820802080L, 0x0020440411011000L,
+            0x80C0860904020308L, 0x6801010206016400L, 0x0800000800E08844L,
+            0x240080004A302400L, 0x5410002025014A00L, 0xA0244404100C0900L,
+            0x00C4100C03041390L
+    };
+
+    private static final int[][] STRAIGHT_DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    private static final int[][] DIAGONAL_DIRECTIONS = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+
+    // The magic lookup of one slider on one square
+    private static class Magic {
+        long mask;
+        long magic;
+        int shift;
+        long[] attacks;
+
+        int index(long occupied) {
+            return (int) (((occupied & mask) * magic) >>> shift);
+        }
+    }
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int column = square & 7;
+            int row = square >>> 3;
+            for (int c = -1; c <= 1; c++)
+                for (int r = -1; r <= 1; r++)
+                    if (c != 0 || r != 0)
+                        KING[square] |= bit(column + c, row + r);
+
+            // The Knight leaps two tiles one way and three the other
+            for (int c = 2; c <= 3; c++) {
+                int r = 5 - c;
+                KNIGHT[square] |= bit(column + c, row + r) | bit(column + c, row - r)
+                        | bit(column - c, row + r) | bit(column - c, row - r);
+            }
+
+            // The Bishop jumps up to three tiles diagonally; its side step only
+            // goes to free tiles, so it does not attack
+            for (int d = 1; d <= 3; d++)
+                BISHOP[square] |= bit(column + d, row + d) | bit(column + d, row - d)
+                        | bit(column - d, row + d) | bit(column - d, row - d);
+
+            // White pawns move up the board (to lower rows), black pawns down
+            for (int c = -1; c <= 1; c++) {
+                PAWN[Bitboard.WHITE][square] |= bit(column + c, row - 1);
+                PAWN[Bitboard.BLACK][square] |= bit(column + c, row + 1);
+            }
+        }
+
+        for (int square = 0; square < 64; square++) {
+            for (int[][] directions : new int[][][] { STRAIGHT_DIRECTIONS, DIAGONAL_DIRECTIONS }) {
+                for (int[] direction : directions) {
+                    long between = 0;
+                    int c = (square & 7) + direction[0];
+                    int r = (square >>> 3) + direction[1];
+                    while (c >= 0 && c < 8 && r >= 0 && r < 8) {
+                        BETWEEN[square][Bitboard.square(c, r)] = between;
+                        between |= bit(c, r);
+                        c += direction[0];
+                        r += direction[1];
+                    }
+                }
+            }
+        }
+
+        for (int square = 0; square < 64; square++) {
+            STRAIGHT[square] = magic(square, STRAIGHT_DIRECTIONS, STRAIGHT_MAGICS[square]);
+            DIAGONAL[square] = magic(square, DIAGONAL_DIRECTIONS, DIAGONAL_MAGICS[square]);
+        }
+    }
+
+    /**
+     * Returns the squares a Rook attacks.
+     *
+     * @param square   the square of the Rook
+     * @param occupied the occupied squares
+     * @return the attacked squares, up to and including the first piece of
+     *         every line
+     */
+    static long rook(int square, long occupied) {
+        Magic m = STRAIGHT[square];
+        return m.attacks[m.index(occupied)];
+    }
+
+    /**
+     * Returns the squares a Queen attacks.
+     *
+     * @param square   the square of the Queen
+     * @param occupied the occupied squares
+     * @return the attacked squares, up to and including the first piece of
+     *         every line
+     */
+    static long queen(int square, long occupied) {
+        return rook(square, occupied) | diagonal(square, occupied);
+    }
+
+    /**
+     * Returns the squares of the diagonals a Queen attacks.
+     *
+     * @param square   the square of the Queen
+     * @param occupied the occupied squares
+     * @return the attacked squares, up to and including the first piece of
+     *         every diagonal
+     */
+    static long diagonal(int square, long occupied) {
+        Magic m = DIAGONAL[square];
+        return m.attacks[m.index(occupied)];
+    }
+
+    // Returns the mask of a square, or 0 if it is off the board
+    private static long bit(int column, int row) {
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return 0;
+        return 1L << Bitboard.square(column, row);
+    }
+
+    // Walks the lines from a square, stopping after the first occupied square
+    private static long slide(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int c = (square & 7) + direction[0];
+            int r = (square >>> 3) + direction[1];
+            while (c >= 0 && c < 8 && r >= 0 && r < 8) {
+                long bit = bit(c, r);
+                attacks |= bit;
+                if ((occupied & bit) != 0)
+                    break;
+                c += direction[0];
+                r += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Builds the magic lookup of a square, filling the table with the attacks of
+    // every set of blockers on its lines
+    private static Magic magic(int square, int[][] directions, long magic) {
+        Magic m = new Magic();
+        m.magic = magic;
+
+        // The blockers that matter are the squares of the lines without their last
+        // square, since a piece on the edge stops the line anyway
+        for (int[] direction : directions) {
+            int c = (square & 7) + direction[0];
+            int r = (square >>> 3) + direction[1];
+            while (c + direction[0] >= 0 && c + direction[0] < 8 && r + direction[1] >= 0 && r + direction[1] < 8) {
+                m.mask |= bit(c, r);
+                c += direction[0];
+                r += direction[1];
+            }
+        }
+        int bits = Long.bitCount(m.mask);
+        m.shift = 64 - bits;
+
+        // Walk every subset of the mask
+        m.attacks = new long[1 << bits];
+        long blockers = 0;
+        do {
+            m.attacks[m.index(blockers)] = slide(square, blockers, directions);
+            blockers = (blockers - m.mask) & m.mask;
+        } while (blockers != 0);
+        return m;
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * The Bitbase class tells, for the endings of a King and one or two pieces
+ * against a lone King, whether the stronger side wins with best play. Each
+ * ending has one table holding a bit per position and side to move, set when
+ * the stronger side wins; the tables are computed by retrograde analysis with
+ * the rules of this game (BitbaseGenerator), written to files next to the
+ * classes and mapped read-only on later runs.
+ *
+ * The tables hold the positions with the stronger side as white and its King
+ * on the files a to d; the other positions are mirrored into them, which the
+ * rules allow since the Bishop side-steps both ways and every other piece moves
+ * alike to the left and to the right. Castling is not considered.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Bitbase {
+
+    // Results of probe, for the player to move
+    public static final int UNKNOWN = -2;
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+
+    // The pieces of the stronger side besides its King, for every ending that
+    // has a table. The endings with a lone Bishop or Knight are there because a
+    // pawn can promote to them and the other pieces can be taken down to them.
+    public static final int[][] ENDINGS = {
+            { Piece.QUEEN },
+            { Piece.ROOK },
+            { Piece.BISHOP },
+            { Piece.KNIGHT },
+            { Piece.PAWN },
+            { Piece.BISHOP, Piece.KNIGHT },
+    };
+
+    // Changed whenever the rules or the layout of the files change, so that
+    // stale files are not read
+    private static final int VERSION = 1;
+
+    // Tables loaded or being computed, by name. Each table is computed by the
+    // first thread to ask for it, outside any lock, while the others wait for
+    // that table alone.
+    private static final Map<String, CompletableFuture<Bitbase>> TABLES = new ConcurrentHashMap<>();
+
+    public final String name;
+    final int[] types;
+
+    // Positions per side to move
+    final int size;
+
+    // Bits of the positions won by the stronger side: the first size bits with
+    // the stronger side to move, the next size bits with the other side to move
+    private final ByteBuffer bits;
+
+    private Bitbase(int[] types, ByteBuffer bits) {
+        this.name = name(types);
+        this.types = types;
+        this.size = size(types.length);
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the table of an ending, loading it from its file or computing it
+     * the first time. Computing a table can take a while; the table of a King,
+     * a Bishop and a Knight is the longest.
+     *
+     * @param types the pieces of the stronger side besides its King, in the
+     *              order of ENDINGS
+     * @return the table
+     * @throws IllegalArgumentException if the ending has no table
+     */
+    public static Bitbase table(int... types) {
+        String name = name(types);
+        if (!isSupported(types))
+            throw new IllegalArgumentException("No bitbase for " + name);
+        CompletableFuture<Bitbase> table = TABLES.get(name);
+        if (table == null) {
+            CompletableFuture<Bitbase> created = new CompletableFuture<>();
+            table = TABLES.putIfAbsent(name, created);
+            if (table == null) {
+                table = created;
+                try {
+                    created.complete(build(types, name));
+                } catch (RuntimeException | Error e) {
+                    // Let a later call try again
+                    TABLES.remove(name, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return table.join();
+    }
+
+    // Map the file of a table, or compute the table and write its file
+    private static Bitbase build(int[] types, String name) {
+        long bytes = 2L * size(types.length) / 8;
+        Path file = directory().resolve(name.toLowerCase() + ".v" + VERSION + ".bitbase");
+        ByteBuffer bits = null;
+        try {
+            if (Files.isRegularFile(file) && Files.size(file) == bytes)
+                bits = map(file);
+        } catch (IOException e) {
+            bits = null;
+        }
+        if (bits == null) {
+            long[] words = new BitbaseGenerator(types).generate();
+            bits = ByteBuffer.allocate((int) bytes);
+            bits.asLongBuffer().put(words);
+            try {
+                Path temporary = Files.createTempFile(file.getParent(), name, ".tmp");
+                Files.write(temporary, bits.array());
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                bits = map(file);
+            } catch (IOException e) {
+                // Without a writable directory the table stays on the heap
+                System.err.println("Cannot cache " + file + ": " + e);
+            }
+        }
+        return new Bitbase(types, bits);
+    }
+
+    /**
+     * Scores a position of at most four pieces, a King and one or two pieces
+     * against a lone King.
+     *
+     * @param state the game
+     * @return WIN, DRAW or LOSS for the player to move, or UNKNOWN when no table
+     *         holds the position
+     */
+    public static int probe(GameState state) {
+        return probe(state, true);
+    }
+
+    /**
+     * Scores a position like probe, without waiting for a table to be
+     * computed: the first time an ending is met its table is computed on a
+     * background thread, and UNKNOWN is returned until it is ready. This is the
+     * probe to call from the Swing thread.
+     *
+     * @param state the game
+     * @return WIN, DRAW or LOSS for the player to move, or UNKNOWN when no table
+     *         holds the position or it is not ready yet
+     */
+    public static int probeLoaded(GameState state) {
+        return probe(state, false);
+    }
+
+    private static int probe(GameState state, boolean wait) {
+        Bitboard bitboard = state.bitboard;
+        if (Long.bitCount(bitboard.occupied) > 4)
+            return UNKNOWN;
+        long white = bitboard.colors[Bitboard.WHITE];
+        long black = bitboard.colors[Bitboard.BLACK];
+        if (Long.bitCount(bitboard.pieces[Bitboard.WHITE][Piece.KING]) != 1
+                || Long.bitCount(bitboard.pieces[Bitboard.BLACK][Piece.KING]) != 1)
+            return UNKNOWN;
+        if (Long.bitCount(white) == 1 && Long.bitCount(black) == 1)
+            return DRAW;
+        if (Long.bitCount(white) > 1 && Long.bitCount(black) > 1)
+            return UNKNOWN;
+
+        boolean strongIsWhite = Long.bitCount(white) > 1;
+        int strong = Bitboard.color(strongIsWhite);
+        // Seen from the stronger side, as white
+        int flip = strongIsWhite ? 0 : 56;
+
+        int count = 0;
+        int[] types = new int[2];
+        int[] squares = new int[2];
+        for (int type = Piece.QUEEN; type <= Piece.PAWN; type++) {
+            for (long mask = bitboard.pieces[strong][type]; mask != 0; mask &= mask - 1) {
+                types[count] = type;
+                squares[count++] = Long.numberOfTrailingZeros(mask) ^ flip;
+            }
+        }
+        int[] ending = count == 1 ? new int[] { types[0] } : new int[] { types[0], types[1] };
+        if (!isSupported(ending))
+            return UNKNOWN;
+        if (!wait && !isLoaded(ending))
+            return UNKNOWN;
+
+        int strongKing = Long.numberOfTrailingZeros(bitboard.pieces[strong][Piece.KING]) ^ flip;
+        int weakKing = Long.numberOfTrailingZeros(bitboard.pieces[strong ^ 1][Piece.KING]) ^ flip;
+        boolean strongToMove = state.isWhiteTurn() == strongIsWhite;
+        if (!table(ending).isWon(strongToMove, index(strongKing, weakKing, squares, count)))
+            return DRAW;
+        return strongToMove ? WIN : LOSS;
+    }
+
+    // Check if the table of an ending is ready, starting to compute it on a
+    // background thread the first time
+    private static boolean isLoaded(int[] ending) {
+        CompletableFuture<Bitbase> table = TABLES.get(name(ending));
+        if (table == null) {
+            Thread builder = new Thread(() -> table(ending), "bitbase-" + name(ending));
+            builder.setDaemon(true);
+            builder.start();
+            return false;
+        }
+        return table.isDone() && !table.isCompletedExceptionally();
+    }
+
+    /**
+     * Counts the positions won by the stronger side.
+     *
+     * @param strongToMove whether the stronger side is to move
+     * @return the number of won positions
+     */
+    public long wins(boolean strongToMove) {
+        long wins = 0;
+        int first = (strongToMove ? 0 : size) / 64;
+        for (int word = first; word < first + size / 64; word++)
+            wins += Long.bitCount(bits.getLong(word << 3));
+        return wins;
+    }
+
+    /**
+     * Checks if the stronger side wins a position of the table.
+     *
+     * @param strongToMove whether the stronger side is to move
+     * @param index        the position, from index
+     * @return true if the stronger side wins
+     */
+    boolean isWon(boolean strongToMove, int index) {
+        long bit = (strongToMove ? 0 : size) + (long) index;
+        return (bits.getLong((int) (bit >>> 6) << 3) >>> (bit & 63) & 1) != 0;
+    }
+
+    /**
+     * Computes the index of a position in a table, mirroring it so the King of
+     * the stronger side stands on the files a to d.
+     *
+     * @param strongKing the square of the King of the stronger side, as white
+     * @param weakKing   the square of the other King
+     * @param squares    the squares of the other pieces, in the order of the
+     *                   types of the table
+     * @param count      the number of other pieces
+     * @return the index, from 0 to size - 1
+     */
+    static int index(int strongKing, int weakKing, int[] squares, int count) {
+        int mirror = (strongKing & 7) > 3 ? 7 : 0;
+        strongKing ^= mirror;
+        int index = (strongKing >>> 3) * 4 + (strongKing & 7);
+        index = index * 64 + (weakKing ^ mirror);
+        for (int i = 0; i < count; i++)
+            index = index * 64 + (squares[i] ^ mirror);
+        return index;
+    }
+
+    static int size(int pieces) {
+        return 32 * 64 << 6 * pieces;
+    }
+
+    static boolean isSupported(int[] types) {
+        for (int[] ending : ENDINGS)
+            if (Arrays.equals(ending, types))
+                return true;
+        return false;
+    }
+
+    static String name(int[] types) {
+        StringBuilder name = new StringBuilder("K");
+        for (int type : types)
+            name.append(Character.toUpperCase(Move.PIECE_LETTERS.charAt(type)));
+        return name.append('K').toString();
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the directory of the table files: the one given with
+     * -Dcheckmate.bitbases, or else the one holding the classes or the jar.
+     *
+     * @return the directory
+     */
+    static Path directory() {
+        String directory = System.getProperty("checkmate.bitbases");
+        if (directory != null)
+            return Paths.get(directory);
+        try {
+            Path code = Paths.get(Bitbase.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return Files.isDirectory(code) ? code : code.toAbsolutePath().getParent();
+        } catch (URISyntaxException | RuntimeException e) {
+            return Paths.get(".");
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/**
+ * The BitbaseGenerator class computes the table of an ending for Bitbase by
+ * retrograde analysis. It first marks the positions where the lone King is
+ * mated, then repeats two passes until neither finds a new won position: a
+ * position with the stronger side to move is won if one of its moves reaches a
+ * won position, and a position with the lone King to move is won if all of its
+ * moves do. Captures of a piece and promotions lead into the tables of the
+ * smaller endings, which are loaded first.
+ *
+ * Every pass splits the positions across the cores by words of 64 positions.
+ * A pass only writes the bits of one side to move and only reads those of the
+ * other, so the threads never write the same word.
+ *
+ * The moves are those of GameState, made on bitboards: the Knight leaps two
+ * and three tiles, the Bishop jumps up to three tiles diagonally or steps one
+ * tile sideways onto an empty square, and the pawn also takes straight ahead.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+import java.util.stream.IntStream;
+
+class BitbaseGenerator {
+
+    // Row where the pawns of white start and may step two tiles
+    private static final int PAWN_START_ROW = 6;
+
+    private static final int[] PROMOTIONS = { Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT };
+
+    private final int[] types;
+    private final int count;
+    private final int size;
+
+    // Table left after the lone King takes each piece, or null if only the
+    // Kings are left
+    private final Bitbase[] captures;
+
+    // Tables reached by promoting the pawn, in the order of PROMOTIONS
+    private final Bitbase[] promotions;
+
+    // Positions that can occur, and positions won by the stronger side, with
+    // the stronger side and with the lone King to move
+    private final long[] strongValid;
+    private final long[] weakValid;
+    private final long[] strongWon;
+    private final long[] weakWon;
+
+    BitbaseGenerator(int[] types) {
+        this.types = types;
+        this.count = types.length;
+        this.size = Bitbase.size(count);
+        strongValid = new long[size / 64];
+        weakValid = new long[size / 64];
+        strongWon = new long[size / 64];
+        weakWon = new long[size / 64];
+
+        captures = new Bitbase[count];
+        for (int i = 0; i < count; i++)
+            if (count > 1)
+                captures[i] = Bitbase.table(types[1 - i]);
+
+        promotions = new Bitbase[PROMOTIONS.length];
+        if (count == 1 && types[0] == Piece.PAWN)
+            for (int i = 0; i < PROMOTIONS.length; i++)
+                promotions[i] = Bitbase.table(PROMOTIONS[i]);
+    }
+
+    /**
+     * Computes the table.
+     *
+     * @return the words of the positions won with the stronger side to move,
+     *         followed by those won with the lone King to move
+     */
+    long[] generate() {
+        IntStream.range(0, strongValid.length).parallel().forEach(this::initialize);
+        while (true) {
+            int found = IntStream.range(0, strongValid.length).parallel().map(this::strongPass).sum();
+            found += IntStream.range(0, weakValid.length).parallel().map(this::weakPass).sum();
+            if (found == 0)
+                break;
+        }
+
+        long[] words = new long[2 * strongWon.length];
+        System.arraycopy(strongWon, 0, words, 0, strongWon.length);
+        System.arraycopy(weakWon, 0, words, strongWon.length, weakWon.length);
+        return words;
+    }
+
+    // Mark the positions of a word that can occur, and the mates
+    private int initialize(int word) {
+        int[] squares = new int[count + 2];
+        int[] moves = new int[1];
+        for (int bit = 0; bit < 64; bit++) {
+            int index = word * 64 + bit;
+            if (!decode(index, squares))
+                continue;
+            long occupied = occupied(squares);
+            boolean check = (attacks(squares, occupied, -1) & 1L << squares[1]) != 0;
+
+            // The lone King cannot be in check with the stronger side to move
+            if (!check)
+                strongValid[word] |= 1L << bit;
+
+            int weakMoves = weakMoves(squares, occupied, moves);
+            if (weakMoves == 0) {
+                // Mate is won, stalemate is drawn; neither needs another look
+                if (check)
+                    weakWon[word] |= 1L << bit;
+            } else {
+                weakValid[word] |= 1L << bit;
+            }
+        }
+        return 0;
+    }
+
+    // Find the positions of a word won by a move of the stronger side
+    private int strongPass(int word) {
+        long open = strongValid[word] & ~strongWon[word];
+        int found = 0;
+        int[] squares = new int[count + 2];
+        int[] next = new int[count];
+        for (; open != 0; open &= open - 1) {
+            int bit = Long.numberOfTrailingZeros(open);
+            decode(word * 64 + bit, squares);
+            if (strongWins(squares, next)) {
+                strongWon[word] |= 1L << bit;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Find the positions of a word where every move of the lone King loses
+    private int weakPass(int word) {
+        long open = weakValid[word] & ~weakWon[word];
+        int found = 0;
+        int[] squares = new int[count + 2];
+        int[] next = new int[count];
+        for (; open != 0; open &= open - 1) {
+            int bit = Long.numberOfTrailingZeros(open);
+            decode(word * 64 + bit, squares);
+            if (weakLoses(squares, next)) {
+                weakWon[word] |= 1L << bit;
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private boolean strongWins(int[] squares, int[] next) {
+        int strongKing = squares[0];
+        int weakKing = squares[1];
+        long occupied = occupied(squares);
+        for (int i = 0; i < count; i++)
+            next[i] = squares[i + 2];
+
+        long kingTargets = Attacks.KING[strongKing] & ~occupied & ~Attacks.KING[weakKing];
+        for (; kingTargets != 0; kingTargets &= kingTargets - 1) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            if (isWeakWon(Bitbase.index(to, weakKing, next, count)))
+                return true;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int from = squares[i + 2];
+            long targets = targets(types[i], from, occupied);
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                next[i] = to;
+                if (types[i] == Piece.PAWN && to >>> 3 == 0) {
+                    for (Bitbase promoted : promotions)
+                        if (promoted.isWon(false, Bitbase.index(strongKing, weakKing, next, count)))
+                            return true;
+                } else if (isWeakWon(Bitbase.index(strongKing, weakKing, next, count))) {
+                    return true;
+                }
+            }
+            next[i] = from;
+        }
+        return false;
+    }
+
+    private boolean weakLoses(int[] squares, int[] next) {
+        int strongKing = squares[0];
+        int weakKing = squares[1];
+        long occupied = occupied(squares) & ~(1L << weakKing);
+        long ownPieces = occupied & ~(1L << strongKing);
+
+        long targets = Attacks.KING[weakKing] & ~Attacks.KING[strongKing];
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int taken = -1;
+            if ((ownPieces & 1L << to) != 0)
+                for (int i = 0; i < count; i++)
+                    if (squares[i + 2] == to)
+                        taken = i;
+            if ((attacks(squares, occupied, taken) & 1L << to) != 0)
+                continue;
+
+            if (taken < 0) {
+                for (int i = 0; i < count; i++)
+                    next[i] = squares[i + 2];
+                if (!isStrongWon(Bitbase.index(strongKing, to, next, count)))
+                    return false;
+            } else {
+                // Taking the last piece leaves the Kings alone, a draw
+                if (captures[taken] == null)
+                    return false;
+                next[0] = squares[2 + (1 - taken)];
+                if (!captures[taken].isWon(true, Bitbase.index(strongKing, to, next, 1)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    // Find the legal moves of the lone King, up to the size of the sink
+    private int weakMoves(int[] squares, long occupied, int[] sink) {
+        int strongKing = squares[0];
+        int weakKing = squares[1];
+        long others = occupied & ~(1L << weakKing);
+        int moves = 0;
+        long targets = Attacks.KING[weakKing] & ~Attacks.KING[strongKing];
+        for (; targets != 0 && moves < sink.length; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int taken = -1;
+            for (int i = 0; i < count; i++)
+                if (squares[i + 2] == to)
+                    taken = i;
+            if ((attacks(squares, others, taken) & 1L << to) == 0)
+                sink[moves++] = to;
+        }
+        return moves;
+    }
+
+    // Squares a piece of the stronger side can move to, none of them taken
+    // since the only piece of the other side is its King
+    private static long targets(int type, int from, long occupied) {
+        switch (type) {
+            case Piece.QUEEN:
+                return Attacks.queen(from, occupied) & ~occupied;
+            case Piece.ROOK:
+                return Attacks.rook(from, occupied) & ~occupied;
+            case Piece.KNIGHT:
+                return Attacks.KNIGHT[from] & ~occupied;
+            case Piece.BISHOP: {
+                long steps = 0;
+                if ((from & 7) < 7)
+                    steps |= 1L << (from + 1);
+                if ((from & 7) > 0)
+                    steps |= 1L << (from - 1);
+                return (Attacks.BISHOP[from] | steps) & ~occupied;
+            }
+            default: {
+                // A pawn of white moves to lower rows
+                long targets = 0;
+                int to = from - 8;
+                if ((occupied & 1L << to) == 0) {
+                    targets |= 1L << to;
+                    if (from >>> 3 == PAWN_START_ROW && (occupied & 1L << (to - 8)) == 0)
+                        targets |= 1L << (to - 8);
+                }
+                return targets;
+            }
+        }
+    }
+
+    // Squares attacked by the stronger side, leaving out the piece taken
+    private long attacks(int[] squares, long occupied, int taken) {
+        long attacks = Attacks.KING[squares[0]];
+        for (int i = 0; i < count; i++) {
+            if (i == taken)
+                continue;
+            int square = squares[i + 2];
+            switch (types[i]) {
+                case Piece.QUEEN:
+                    attacks |= Attacks.queen(square, occupied);
+                    break;
+                case Piece.ROOK:
+                    attacks |= Attacks.rook(square, occupied);
+                    break;
+                case Piece.BISHOP:
+                    attacks |= Attacks.BISHOP[square];
+                    break;
+                case Piece.KNIGHT:
+                    attacks |= Attacks.KNIGHT[square];
+                    break;
+                default:
+                    attacks |= Attacks.PAWN[Bitboard.WHITE][square];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Reads the squares of a position from its index: the King of the stronger
+     * side, the other King, then the pieces.
+     *
+     * @param index   the index
+     * @param squares receives the squares
+     * @return false if the position cannot occur: two pieces on one square,
+     *         Kings side by side or a pawn on the first or the last row
+     */
+    private boolean decode(int index, int[] squares) {
+        for (int i = count + 1; i >= 1; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        squares[0] = (index >>> 2) * 8 + (index & 3);
+
+        long occupied = 0;
+        for (int square : squares) {
+            if ((occupied & 1L << square) != 0)
+                return false;
+            occupied |= 1L << square;
+        }
+        if ((Attacks.KING[squares[0]] & 1L << squares[1]) != 0)
+            return false;
+        for (int i = 0; i < count; i++) {
+            int row = squares[i + 2] >>> 3;
+            if (types[i] == Piece.PAWN && (row == 0 || row == 7))
+                return false;
+        }
+        return true;
+    }
+
+    private static long occupied(int[] squares) {
+        long occupied = 0;
+        for (int square : squares)
+            occupied |= 1L << square;
+        return occupied;
+    }
+
+    private boolean isStrongWon(int index) {
+        return (strongWon[index >>> 6] >>> (index & 63) & 1) != 0;
+    }
+
+    private boolean isWeakWon(int index) {
+        return (weakWon[index >>> 6] >>> (index & 63) & 1) != 0;
+    }
+}
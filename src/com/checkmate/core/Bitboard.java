@@ -0,0 +1,176 @@
+/**
+ * The Bitboard class keeps the position of every piece on the board as 64-bit
+ * occupancy masks, one per piece type and color, together with a
+ * square-to-piece array so that a square can be looked up directly.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+import java.util.Arrays;
+
+public class Bitboard {
+
+    // Color indexes of the masks
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // Occupancy masks indexed by [color][piece type]
+    final long[][] pieces = new long[2][6];
+
+    // Occupancy masks indexed by color, and of the whole board
+    final long[] colors = new long[2];
+    long occupied;
+
+    // The piece standing on every square, or null for an empty square
+    final Piece[] squares = new Piece[64];
+
+    /**
+     * Converts a column and row to a square index (a8 = 0, h1 = 63).
+     *
+     * @param column the column of the square
+     * @param row    the row of the square
+     * @return the square index
+     */
+    public static int square(int column, int row) {
+        return row * 8 + column;
+    }
+
+    /**
+     * Returns the name of a square, such as "e4".
+     *
+     * @param square the square index
+     * @return the name of the square
+     */
+    public static String squareName(int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('8' - (square >>> 3));
+    }
+
+    /**
+     * Reads the name of a square, such as "e4".
+     *
+     * @param name the name of the square
+     * @return the square index
+     * @throws IllegalArgumentException if the name is not a square
+     */
+    public static int parseSquare(String name) {
+        if (name.length() != 2)
+            throw new IllegalArgumentException("Not a square: " + name);
+        int column = name.charAt(0) - 'a';
+        int row = '8' - name.charAt(1);
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            throw new IllegalArgumentException("Not a square: " + name);
+        return square(column, row);
+    }
+
+    /**
+     * Returns the color index of a piece.
+     *
+     * @param isWhite whether the piece is white
+     * @return the color index
+     */
+    public static int color(boolean isWhite) {
+        return isWhite ? WHITE : BLACK;
+    }
+
+    /**
+     * Returns the piece standing on a square.
+     *
+     * @param column the column of the square
+     * @param row    the row of the square
+     * @return the piece on the square, or null if it is empty or off the board
+     */
+    public Piece get(int column, int row) {
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return null;
+        return squares[square(column, row)];
+    }
+
+    /**
+     * Returns the mask of the pieces of one type and color.
+     *
+     * @param isWhite the color of the pieces
+     * @param type    the piece type
+     * @return the occupancy mask
+     */
+    public long pieces(boolean isWhite, int type) {
+        return pieces[color(isWhite)][type];
+    }
+
+    /**
+     * Returns the mask of all pieces of one color.
+     *
+     * @param isWhite the color of the pieces
+     * @return the occupancy mask
+     */
+    public long colorMask(boolean isWhite) {
+        return colors[color(isWhite)];
+    }
+
+    /**
+     * Returns the mask of all occupied squares.
+     *
+     * @return the occupancy mask
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Places a piece on its square.
+     *
+     * @param piece the piece to place
+     */
+    public void add(Piece piece) {
+        int square = square(piece.column, piece.row);
+        long bit = 1L << square;
+        int color = color(piece.isWhite);
+        pieces[color][piece.type] |= bit;
+        colors[color] |= bit;
+        occupied |= bit;
+        squares[square] = piece;
+    }
+
+    /**
+     * Takes a piece off its square.
+     *
+     * @param piece the piece to remove
+     */
+    public void remove(Piece piece) {
+        int square = square(piece.column, piece.row);
+        long bit = 1L << square;
+        int color = color(piece.isWhite);
+        pieces[color][piece.type] &= ~bit;
+        colors[color] &= ~bit;
+        occupied &= ~bit;
+        if (squares[square] == piece)
+            squares[square] = null;
+    }
+
+    /**
+     * Moves a piece to another square and updates its column and row. The
+     * target square must be empty.
+     *
+     * @param piece  the piece to move
+     * @param column the new column of the piece
+     * @param row    the new row of the piece
+     */
+    public void move(Piece piece, int column, int row) {
+        remove(piece);
+        piece.column = column;
+        piece.row = row;
+        add(piece);
+    }
+
+    /**
+     * Removes every piece from the board.
+     */
+    public void clear() {
+        for (long[] colorPieces : pieces)
+            Arrays.fill(colorPieces, 0L);
+        colors[WHITE] = 0L;
+        colors[BLACK] = 0L;
+        occupied = 0L;
+        Arrays.fill(squares, null);
+    }
+}
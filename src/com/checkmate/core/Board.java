@@ -1,224 +1,324 @@
 package com.checkmate.core;
 
+import com.checkmate.engine.OpeningBook;
+import com.checkmate.engine.ParallelSearch;
+import com.checkmate.engine.SearchResult;
+import com.checkmate.engine.TranspositionTable;
 import com.checkmate.pieces.*;
 import com.checkmate.ui.GameFrame;
 import com.checkmate.ui.GameOver;
 import com.checkmate.ui.Theme; // Import Theme
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-
-// Board class definition
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+// Board class definition: the Swing view of a GameState
 public class Board extends JPanel {
 
-    static ArrayList<Piece> gamePieceList = new ArrayList<>();
+    public final GameState state;
 
     public int tileSize = 80;
     public Piece selectedPiece;
 
-    CheckMate checkMate = new CheckMate(this);
+    // The squares the selected piece can move to, and those of them holding a
+    // piece it would take, found once by select so painting only reads them
+    long legalTargets;
+    long captureTargets;
+
     int rows = 8;
     int columns = 8;
     int vmCircleRadius = 25; // Adjusted size
 
     Input input = new Input(this);
 
+    // The tiles, drawn once for the colors of the theme and the tile size and
+    // copied on every repaint, and the theme version they were drawn with
+    private BufferedImage boardImage;
+    private int boardImageVersion;
+
+    private static final Color SELECTION_HIGHLIGHT = new Color(255, 255, 0, 100); // Semi-transparent yellow
+    private static final Color CAPTURE_HIGHLIGHT = new Color(255, 69, 58, 200); // Red highlight
+    private static final BasicStroke CAPTURE_STROKE = new BasicStroke(4);
+
+    // Time the computer opponent may think about a move, in milliseconds
+    public static final long COMPUTER_MILLIS = 2000;
+
+    // Threads the computer opponent searches with
+    public static final int COMPUTER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Opening book of the computer opponent, used for the first plies of a
+    // game; the file can be chosen with -Dcheckmate.book=FILE
+    public static final int BOOK_PLIES = 20;
+    static final OpeningBook BOOK = openBook(Paths.get(System.getProperty("checkmate.book", "book.bin")));
+
+    // Whether the computer plays one side, and which one
+    boolean hasComputer;
+    boolean computerIsWhite;
+
+    // Positions searched by the computer, kept from one move to the next
+    TranspositionTable table;
+
     public Board() {
+        this(new GameState());
+    }
+
+    public Board(GameState state) {
+        this.state = state;
         // Remove hardcoded logic, use Theme
         this.setPreferredSize(new Dimension(columns * tileSize, rows * tileSize));
         this.addMouseListener(input);
         this.addMouseMotionListener(input);
-        addPiece();
     }
 
     public Piece getPiece(int column, int row) {
-        for (Piece piece : gamePieceList)
-            if ((piece.column == column) && (piece.row == row))
-                return piece;
-        return null;
+        return state.getPiece(column, row);
     }
 
     public boolean isValidMove(Move move) {
-        // Basic Validation
-        if (sameTeam(move.piece, move.capture))
-            return false;
-        if (!(move.newColumn < 8 && move.newColumn >= 0) && !(move.newRow < 8 && move.newRow >= 0))
-            return false;
-        if (!move.piece.isValidMovement(move.newColumn, move.newRow))
-            return false;
-        if (move.piece.moveHitsPiece(move.newColumn, move.newRow))
-            return false;
+        return state.isValidMove(move);
+    }
 
-        // Simulation for Check
-        int oldCol = move.piece.column;
-        int oldRow = move.piece.row;
-        Piece captured = getPiece(move.newColumn, move.newRow);
+    public boolean validTurn() {
+        return state.validTurn(selectedPiece);
+    }
 
-        // Temporarily apply
-        if (captured != null) {
-            gamePieceList.remove(captured);
+    /**
+     * Selects a piece and finds the squares it can move to, which stay empty
+     * when it is not the turn of the piece.
+     *
+     * @param piece the piece, or null to clear the selection
+     */
+    public void select(Piece piece) {
+        long oldSquares = selectionSquares();
+        selectedPiece = piece;
+        legalTargets = 0;
+        captureTargets = 0;
+        if (piece != null && validTurn()) {
+            int[] moves = new int[Piece.MAX_MOVES];
+            int count = state.generateValidMoves(piece, moves);
+            for (int i = 0; i < count; i++)
+                legalTargets |= 1L << moves[i];
+            captureTargets = legalTargets & state.occupied();
         }
-        move.piece.column = move.newColumn;
-        move.piece.row = move.newRow;
+        // Only the highlights that come and go are painted again
+        repaintSquares(oldSquares | selectionSquares());
+    }
 
-        // Check safety
-        boolean kingSafe = !checkMate.isKingChecked(move);
+    // The squares highlighted for the selection
+    private long selectionSquares() {
+        if (selectedPiece == null)
+            return 0;
+        return legalTargets | 1L << Bitboard.square(selectedPiece.column, selectedPiece.row);
+    }
 
-        // Revert
-        move.piece.column = oldCol;
-        move.piece.row = oldRow;
-        if (captured != null) {
-            gamePieceList.add(captured);
+    /**
+     * Asks for the squares of a mask to be painted again, each as its own
+     * region, rather than the whole board.
+     *
+     * @param squares the mask of the squares (bit row * 8 + column)
+     */
+    public void repaintSquares(long squares) {
+        for (; squares != 0; squares &= squares - 1) {
+            int square = Long.numberOfTrailingZeros(squares);
+            repaint((square & 7) * tileSize, (square >>> 3) * tileSize, tileSize, tileSize);
         }
-
-        return kingSafe;
     }
 
-    public boolean sameTeam(Piece p1, Piece p2) {
-        if (p1 == null || p2 == null)
+    /**
+     * Checks if the selected piece can move to a square, from the squares found
+     * when it was selected.
+     *
+     * @param column the column of the square
+     * @param row    the row of the square
+     * @return true if the move is valid, false otherwise
+     */
+    public boolean isLegalTarget(int column, int row) {
+        if (column < 0 || column > 7 || row < 0 || row > 7)
             return false;
-        return p1.isWhite == p2.isWhite;
+        return (legalTargets & 1L << Bitboard.square(column, row)) != 0;
     }
 
-    public boolean validTurn() {
-        if (selectedPiece == null)
-            return false;
-        return Move.counter % 2 == 0 == selectedPiece.isWhite;
+    public void makeMove(Move move) {
+        if (move.piece == null)
+            return;
+        // The squares found for the selection no longer apply
+        select(null);
+
+        // Ask the player for the promotion piece before applying the move
+        if (state.isPromotion(move) && !isComputerTurn()) {
+            move.promotion = pawnPromote(move);
+        }
+        // Paint again only the squares the move changed: two, or four for
+        // castling
+        state.makeMove(move);
+        repaintSquares(state.lastMoveSquares());
+
+        // Update captured pieces and Turn Label in UI
+        Window window = SwingUtilities.getWindowAncestor(this);
+        if (window instanceof GameFrame) {
+            GameFrame frame = (GameFrame) window;
+            if (move.capture != null) {
+                // The 'eaten pieces' panel for Player X shows the pieces of Player Y that X
+                // captured.
+                frame.drawEatenPiece(state.getEatenPieces(!move.capture.isWhite), !move.capture.isWhite);
+            }
+            frame.updateTurnLabel(state.isWhiteTurn());
+        }
+
+        GameResult result = state.getResult();
+        if (result.isOver()) {
+            String winner = result.isDraw() ? null
+                    : result == GameResult.WHITE_WINS ? GameFrame.p1NameText : GameFrame.p2NameText;
+            new GameOver(result, winner);
+        } else if (isComputerTurn()) {
+            playComputerMove();
+        }
     }
 
-    Piece findKing(boolean isWhite) {
-        for (Piece piece : gamePieceList)
-            if (isWhite == piece.isWhite && piece.name.equals("King"))
-                return piece;
-        return null;
+    /**
+     * Lets the computer play one side of the game.
+     *
+     * @param isWhite the color the computer plays
+     */
+    public void setComputer(boolean isWhite) {
+        hasComputer = true;
+        computerIsWhite = isWhite;
+        if (table == null)
+            table = new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES);
+        if (isComputerTurn())
+            playComputerMove();
     }
 
-    public void makeMove(Move move) {
-        if (move.piece != null) {
-            move.piece.column = move.newColumn;
-            move.piece.row = move.newRow;
-            move.piece.xPos = move.newColumn * tileSize;
-            move.piece.yPos = move.newRow * tileSize;
+    /**
+     * Checks if the computer is to move, so the player's clicks are ignored.
+     *
+     * @return true if the computer plays the side to move, false otherwise
+     */
+    public boolean isComputerTurn() {
+        return hasComputer && state.isWhiteTurn() == computerIsWhite;
+    }
 
-            capture(move.capture, false);
-            move.piece.isFirstMove = false;
+    // Open the opening book of the computer opponent, or play without one when
+    // there is no book file or it cannot be read
+    private static OpeningBook openBook(Path file) {
+        if (!Files.isRegularFile(file))
+            return null;
+        try {
+            return OpeningBook.open(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            if (move.piece.name.equals("Pawn") && move.piece.row == move.piece.rowEnd) {
-                pawnPromote(move);
+    // Search the computer's move on a worker thread, then play it on the Swing
+    // thread through makeMove like a move of the player
+    private void playComputerMove() {
+        if (BOOK != null && state.getMoveCounter() < BOOK_PLIES) {
+            Move bookMove = BOOK.pick(state, new Random());
+            if (bookMove != null) {
+                // Let the move of the player be painted before the answer
+                SwingUtilities.invokeLater(() -> makeMove(bookMove));
+                return;
             }
-            if (move.piece.name.equals("King") && move.piece.isFirstMove) {
-                kingCastle(move);
+        }
+
+        ParallelSearch search = new ParallelSearch(state, table, COMPUTER_THREADS);
+        new SwingWorker<SearchResult, Void>() {
+            @Override
+            protected SearchResult doInBackground() {
+                return search.search(0, COMPUTER_MILLIS, 0);
             }
-            // Update Turn Label in UI
-            if (Main.frame instanceof GameFrame) {
-                ((GameFrame) Main.frame).updateTurnLabel(Move.counter % 2 != 0); // Next turn
+
+            @Override
+            protected void done() {
+                try {
+                    SearchResult result = get();
+                    if (result.bestMove != 0)
+                        makeMove(new Move(state, result.bestMove));
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
             }
-        }
-        if (isGameOver(move)) {
-            String winner = move.piece.isWhite ? "White" : "Black";
-            new GameOver(winner);
-            Main.frame.dispose();
-        }
+        }.execute();
+    }
+
+    /**
+     * Returns the Zobrist key of the position on the board.
+     *
+     * @return the 64-bit key of the position
+     */
+    public long positionKey() {
+        return state.positionKey();
     }
 
     public boolean isGameOver(Move lastMove) {
-        // The player who just moved (lastMove.piece.isWhite) is checking if the
-        // opponent
-        // (!lastMove.piece.isWhite) is mated.
-        boolean opponentIsWhite = !lastMove.piece.isWhite;
-        Piece opponentKing = findKing(opponentIsWhite);
-
-        // 1. Check if ANY valid move exists for the opponent
-        // Create a copy of the list to avoid ConcurrentModificationException during
-        // simulation
-        // (as isValidMove modifies the list temporarily)
-        for (Piece piece : new java.util.ArrayList<>(gamePieceList)) {
-            // Check only opponent pieces
-            if (piece.isWhite == opponentIsWhite) {
-                // Try every possible move for this piece
-                for (int c = 0; c < columns; c++) {
-                    for (int r = 0; r < rows; r++) {
-                        Move testMove = new Move(this, piece, c, r);
-                        if (isValidMove(testMove)) {
-                            // If we find ONE valid move, game is not over.
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
+        return state.isGameOver(lastMove);
+    }
 
-        // 2. No valid moves found.
-        // If King is in check -> Checkmate.
-        // If King NOT in check -> Stalemate (we treat as game over too, but maybe
-        // different message?)
-        // For simplicity, treating "No Valid Moves + In Check" as Checkmate.
-
-        // Check if opponent King is currently in check.
-        // We can create a dummy move to pass to isKingChecked, or use findKing directly
-        // in CheckMate.
-        // Assuming checkMate.isKingChecked(dummyMove) works based on current board
-        // state.
-
-        // Wait, isKingChecked takes a 'Move' object to hypothetically update board.
-        // But here we want to check CURRENT state.
-        // If we pass a dummy move that basically means "King stays where he is",
-        // isKingChecked logic:
-        // if (board.selectedPiece != null && board.selectedPiece.name.equals("King")) {
-        // ... update positsion ... }
-        // If we pass a move with piece=King, newCol=curCol, newRow=curRow.
-
-        Move checkStatusMove = new Move(this, opponentKing, opponentKing.column, opponentKing.row);
-        if (checkMate.isKingChecked(checkStatusMove)) {
-            return true; // Checkmate
-        } else {
-            // Stalemate!
-            // System.out.println("Stalemate");
-            // User asked for "Game Over and what color won".
-            // Ideally we return true here too?
-            // Main logic in Input.java says: if (isGameOver) -> Winner is lastMover.
-            // If Stalemate, last Mover didn't win.
-            // But for now, returning false for Stalemate to avoid confusion?
-            // Or returning true but handling winner differently?
-            // User goal: "game over isn't detected". Usually implies checkmate.
-            // Let's return true for checkmate only for now to solve the bug.
-            return false;
-        }
+    public boolean canProtect(int column, int row, Piece piece) {
+        return state.canProtect(column, row, piece);
     }
 
-    public void capture(Piece piece, Boolean promotion) {
-        gamePieceList.remove(piece);
-        if (piece != null) {
-            String[] eatenPiecesArr = piece.isWhite ? GameFrame.p2EatenPieces : GameFrame.p1EatenPieces;
-            int count = 0;
-            for (String eatenPiece : eatenPiecesArr)
-                if (eatenPiece != null)
-                    count++;
-            if (count < eatenPiecesArr.length) {
-                eatenPiecesArr[count] = piece.name;
-            }
+    public boolean isSquareUnderAttack(int column, int row, boolean byWhite) {
+        return state.isSquareUnderAttack(column, row, byWhite);
+    }
 
-            if (Main.frame instanceof GameFrame) {
-                // If piece is white (captured by black), we want to update Player 2's panel
-                // (Black player)
-                // promotion logic seems inverted in original: promotion ? !piece.isWhite :
-                // piece.isWhite
-                // Let's stick to simpler logic: The 'eaten pieces' panel for Player X shows the
-                // pieces of Player Y that X captured.
-                // Our refactored GameFrame.drawEatenPiece(..., isWhiteGetter)
-                // If piece.isWhite is true (White piece captured), then Black (Player 2)
-                // captured it. isWhiteGetter = false.
-                // So pass false.
-                ((GameFrame) Main.frame).drawEatenPiece(piece.name, !piece.isWhite);
-            }
-        }
+    /**
+     * Tells whether the player to move wins an ending of at most four pieces.
+     * The table of an ending is computed in the background the first time it
+     * is met, which can take a while, so the Swing thread never waits for it.
+     *
+     * @return Bitbase.WIN, DRAW or LOSS, or Bitbase.UNKNOWN for other positions
+     *         and while the table is being computed
+     */
+    public int probeBitbase() {
+        return Bitbase.probeLoaded(state);
     }
 
-    public boolean canProtect(int column, int row, Piece piece) {
-        return isValidMove(new Move(this, piece, column, row));
+    public void addPiece() {
+        state.addPiece();
+        select(null);
+        repaint();
+    }
+
+    /**
+     * Sets up a position written in FEN instead of the starting position.
+     *
+     * @param fen the position
+     * @throws IllegalArgumentException if the position cannot be read or could
+     *                                  not arise in a game, as in Fen.load
+     */
+    public void setPosition(String fen) {
+        Fen.load(state, fen);
+        select(null);
+        repaint();
+    }
+
+    /**
+     * Returns the position on the board in FEN.
+     *
+     * @return the position
+     */
+    public String getFen() {
+        return Fen.toFen(state);
     }
 
-    public void pawnPromote(Move move) {
+    /**
+     * Asks the player which piece a pawn reaching its last row becomes.
+     *
+     * @param move the move that brings the pawn to its last row
+     * @return the chosen piece type, a Queen if the dialog is closed without a
+     *         choice
+     */
+    public int pawnPromote(Move move) {
+        int[] promotion = { Piece.QUEEN };
         JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), "Promote Pawn", true);
         dialog.setUndecorated(true);
         dialog.setLayout(new GridLayout(1, 4, 10, 10));
@@ -228,161 +328,118 @@ public class Board extends JPanel {
         ((JPanel) dialog.getContentPane()).setBorder(BorderFactory.createLineBorder(Theme.ACCENT_BLUE, 2));
 
         String[] pieces = { "Queen", "Rook", "Bishop", "Knight" };
-        String color = move.piece.isWhite ? "white" : "black";
+        int[] pieceTypes = { Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT };
 
-        for (String p : pieces) {
+        for (int i = 0; i < pieces.length; i++) {
+            String p = pieces[i];
+            int pieceType = pieceTypes[i];
             JButton btn = new JButton();
             btn.setFocusPainted(false);
             btn.setBackground(Theme.BACKGROUND_DARK);
             btn.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
             btn.setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-            // Load Icon
-            try {
-                java.net.URL url = getClass().getResource("/images/Pieces/" + color + "/" + p + ".png");
-                if (url != null) {
-                    Image img = new ImageIcon(url).getImage().getScaledInstance(60, 60, Image.SCALE_SMOOTH);
-                    btn.setIcon(new ImageIcon(img));
-                } else {
-                    btn.setText(p);
-                    btn.setForeground(Theme.TEXT_WHITE);
-                }
-            } catch (Exception e) {
+            // Icons are shared with the panels of taken pieces
+            ImageIcon icon = PieceIcons.icon(pieceType, move.piece.isWhite, 60);
+            if (icon != null) {
+                btn.setIcon(icon);
+            } else {
                 btn.setText(p);
+                btn.setForeground(Theme.TEXT_WHITE);
             }
 
             btn.addActionListener(e -> {
-                switch (p) {
-                    case "Queen":
-                        gamePieceList.add(new Queen(this, move.newColumn, move.newRow, move.piece.isWhite));
-                        break;
-                    case "Rook":
-                        gamePieceList.add(new Rook(this, move.newColumn, move.newRow, move.piece.isWhite));
-                        break;
-                    case "Bishop":
-                        gamePieceList.add(new Bishop(this, move.newColumn, move.newRow, move.piece.isWhite));
-                        break;
-                    case "Knight":
-                        gamePieceList.add(new Knight(this, move.newColumn, move.newRow, move.piece.isWhite));
-                        break;
-                }
+                promotion[0] = pieceType;
                 dialog.dispose();
             });
             dialog.add(btn);
         }
 
         dialog.setVisible(true);
-        capture(move.piece, true);
-    }
-
-    private void kingCastle(Move move) {
-        if (move.piece.column == 6) {
-            Piece rook = getPiece(7, move.piece.row);
-            if (rook != null) {
-                rook.column = 5;
-                rook.xPos = rook.column * tileSize;
-            }
-        } else if (move.piece.column == 2) {
-            Piece rook = getPiece(0, move.piece.row);
-            if (rook != null) {
-                rook.column = 3;
-                rook.xPos = rook.column * tileSize;
-            }
-        }
-    }
-
-    public boolean isSquareUnderAttack(int col, int row, boolean byWhite) {
-        for (Piece piece : gamePieceList) {
-            if (piece.isWhite == byWhite) {
-                if (piece.canAttack(col, row)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    public void addPiece() {
-        gamePieceList.clear(); // Clear list on new game?
-        // Reuse logic but ensure list is fresh or static handled correctly.
-        // Original was static list. If we create new Board(), we might duplicate if not
-        // cleared.
-        // But gamePieceList is static in original code... that's bad design but I must
-        // follow it or fix it.
-        // Fix: clear it.
-
-        for (int c = 0; c < columns; c++)
-            gamePieceList.add(new Pawn(this, c, 1, false));
-        for (int c = 0; c < columns; c++)
-            gamePieceList.add(new Pawn(this, c, 6, true));
-
-        gamePieceList.add(new King(this, 4, 0, false));
-        gamePieceList.add(new King(this, 4, 7, true));
-        gamePieceList.add(new Queen(this, 3, 0, false));
-        gamePieceList.add(new Queen(this, 3, 7, true));
-
-        gamePieceList.add(new Bishop(this, 5, 0, false));
-        gamePieceList.add(new Bishop(this, 2, 0, false));
-        gamePieceList.add(new Bishop(this, 5, 7, true));
-        gamePieceList.add(new Bishop(this, 2, 7, true));
-
-        gamePieceList.add(new Knight(this, 1, 0, false));
-        gamePieceList.add(new Knight(this, 6, 0, false));
-        gamePieceList.add(new Knight(this, 1, 7, true));
-        gamePieceList.add(new Knight(this, 6, 7, true));
-
-        gamePieceList.add(new Rook(this, 0, 0, false));
-        gamePieceList.add(new Rook(this, 7, 0, false));
-        gamePieceList.add(new Rook(this, 0, 7, true));
-        gamePieceList.add(new Rook(this, 7, 7, true));
+        return promotion[0];
     }
 
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        // Draw Board
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                g2d.setColor((c + r) % 2 == 0 ? Theme.TILE_LIGHT : Theme.TILE_DARK);
-                g2d.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
-            }
-        }
+        // Only the squares in the clip are drawn, as the moves and selections
+        // ask for the squares they change
+        Rectangle clip = g2d.getClipBounds();
+        long visible = clip == null ? -1L : squaresIn(clip);
+
+        // Board layer
+        g2d.drawImage(boardImage(), 0, 0, null);
 
-        // Draw Highlights
+        // Highlight layer
         if (this.selectedPiece != null) {
             // Highlight selected tile
-            g2d.setColor(new Color(255, 255, 0, 100)); // Semi-transparent yellow
+            g2d.setColor(SELECTION_HIGHLIGHT);
             g2d.fillRect(selectedPiece.column * tileSize, selectedPiece.row * tileSize, tileSize, tileSize);
 
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < columns; c++) {
-                    if (isValidMove(new Move(this, selectedPiece, c, r)) && validTurn()) {
-                        Piece target = getPiece(c, r);
-                        if (target == null) {
-                            // Valid empty move - visual dot
-                            g2d.setColor(Theme.MOVE_HIGHLIGHT);
-                            int padding = (tileSize - vmCircleRadius) / 2;
-                            g2d.fillOval(c * tileSize + padding, r * tileSize + padding, vmCircleRadius,
-                                    vmCircleRadius);
-                        } else {
-                            // Valid capture - corner indicators
-                            g2d.setColor(new Color(255, 69, 58, 200)); // Red highlight
-                            Graphics2D g2 = (Graphics2D) g2d.create();
-                            g2.setStroke(new BasicStroke(4));
-                            g2.drawRect(c * tileSize + 2, r * tileSize + 2, tileSize - 4, tileSize - 4);
-                            g2.dispose();
-                        }
-                    }
+            Graphics2D g2 = (Graphics2D) g2d.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (long targets = legalTargets & visible; targets != 0; targets &= targets - 1) {
+                int square = Long.numberOfTrailingZeros(targets);
+                int c = square & 7;
+                int r = square >>> 3;
+                if ((captureTargets & 1L << square) == 0) {
+                    // Valid empty move - visual dot
+                    g2.setColor(Theme.MOVE_HIGHLIGHT);
+                    int padding = (tileSize - vmCircleRadius) / 2;
+                    g2.fillOval(c * tileSize + padding, r * tileSize + padding, vmCircleRadius, vmCircleRadius);
+                } else {
+                    // Valid capture - corner indicators
+                    g2.setColor(CAPTURE_HIGHLIGHT);
+                    g2.setStroke(CAPTURE_STROKE);
+                    g2.drawRect(c * tileSize + 2, r * tileSize + 2, tileSize - 4, tileSize - 4);
                 }
             }
+            g2.dispose();
+        }
+
+        // Piece layer
+        for (long mask = state.occupied() & visible; mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            getPiece(square & 7, square >>> 3).paint(g2d, tileSize);
         }
+    }
+
+    // Find the squares a region of the board overlaps
+    private long squaresIn(Rectangle region) {
+        int firstColumn = Math.max(0, region.x / tileSize);
+        int lastColumn = Math.min(columns - 1, (region.x + region.width - 1) / tileSize);
+        int firstRow = Math.max(0, region.y / tileSize);
+        int lastRow = Math.min(rows - 1, (region.y + region.height - 1) / tileSize);
+        long squares = 0;
+        for (int r = firstRow; r <= lastRow; r++)
+            for (int c = firstColumn; c <= lastColumn; c++)
+                squares |= 1L << Bitboard.square(c, r);
+        return squares;
+    }
 
-        // Draw Pieces
-        for (Piece piece : gamePieceList) {
-            piece.paint(g2d);
+    // Return the image of the tiles, drawn again when the theme or the tile size
+    // changed since it was last drawn
+    private BufferedImage boardImage() {
+        int width = columns * tileSize;
+        int height = rows * tileSize;
+        if (boardImage != null && boardImage.getWidth() == width && boardImage.getHeight() == height
+                && boardImageVersion == Theme.boardVersion)
+            return boardImage;
+
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        boardImage = configuration != null ? configuration.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        boardImageVersion = Theme.boardVersion;
+        Graphics2D g2d = boardImage.createGraphics();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                g2d.setColor((c + r) % 2 == 0 ? Theme.TILE_LIGHT : Theme.TILE_DARK);
+                g2d.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
+            }
         }
+        g2d.dispose();
+        return boardImage;
     }
 }
@@ -0,0 +1,207 @@
+/**
+ * The Evaluation class holds the tables of the tapered evaluation: the value of
+ * every piece on every square, once for the middlegame and once for the
+ * endgame, and the weight of every piece in the game phase. The score of a
+ * position blends the two by the phase, so it moves smoothly from one to the
+ * other as pieces are traded. Like the Zobrist key, both sums are updated with
+ * a few additions when a move is made.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+
+public class Evaluation {
+
+    // Phase of a position with all the pieces on the board
+    public static final int MAX_PHASE = 24;
+
+    // Values of the piece types, indexed by Piece.KING ... Piece.PAWN
+    private static final int[] MIDDLEGAME_VALUES = { 0, 900, 300, 310, 500, 100 };
+    private static final int[] ENDGAME_VALUES = { 0, 950, 300, 290, 520, 120 };
+
+    // Weight of the piece types in the phase
+    private static final int[] PHASE = { 0, 4, 1, 1, 2, 0 };
+
+    // Piece-square tables seen from white, with the eighth rank on the first
+    // line; black reads them mirrored. Indexed by Piece.KING ... Piece.PAWN.
+    private static final int[][] MIDDLEGAME_TABLES = {
+            { // King: stay behind the pawns
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20 },
+            { // Queen
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20 },
+            { // Bishop: its jumps reach the most squares from the centre
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20 },
+            { // Knight: its long leaps are lost from the rim
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50 },
+            { // Rook
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0 },
+            { // Pawn
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0 } };
+
+    private static final int[][] ENDGAME_TABLES = {
+            { // King: come to the centre
+                    -50, -40, -30, -20, -20, -30, -40, -50,
+                    -30, -20, -10, 0, 0, -10, -20, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -30, 0, 0, 0, 0, -30, -30,
+                    -50, -30, -30, -30, -30, -30, -30, -50 },
+            { // Queen
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -10, 5, 10, 10, 10, 10, 5, -10,
+                    -5, 5, 10, 15, 15, 10, 5, -5,
+                    -5, 5, 10, 15, 15, 10, 5, -5,
+                    -10, 5, 10, 10, 10, 10, 5, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20 },
+            { // Bishop
+                    -15, -10, -10, -10, -10, -10, -10, -15,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -15, -10, -10, -10, -10, -10, -10, -15 },
+            { // Knight
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50 },
+            { // Rook
+                    5, 5, 5, 5, 5, 5, 5, 5,
+                    10, 10, 10, 10, 10, 10, 10, 10,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0 },
+            { // Pawn: run for promotion
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    90, 90, 90, 90, 90, 90, 90, 90,
+                    60, 60, 60, 60, 60, 60, 60, 60,
+                    35, 35, 35, 35, 35, 35, 35, 35,
+                    20, 20, 20, 20, 20, 20, 20, 20,
+                    10, 10, 10, 10, 10, 10, 10, 10,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0 } };
+
+    // Value plus table of every piece on every square, indexed by
+    // [color][piece type][square], positive for white and negative for black
+    private static final int[][][] MIDDLEGAME = new int[2][6][64];
+    private static final int[][][] ENDGAME = new int[2][6][64];
+
+    static {
+        for (int type = Piece.KING; type <= Piece.PAWN; type++) {
+            for (int square = 0; square < 64; square++) {
+                // Mirroring the row turns a square of black into the square of
+                // white on the same rank from its own side
+                int mirrored = square ^ 56;
+                MIDDLEGAME[Bitboard.WHITE][type][square] = MIDDLEGAME_VALUES[type] + MIDDLEGAME_TABLES[type][square];
+                MIDDLEGAME[Bitboard.BLACK][type][square] = -MIDDLEGAME_VALUES[type] - MIDDLEGAME_TABLES[type][mirrored];
+                ENDGAME[Bitboard.WHITE][type][square] = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][square];
+                ENDGAME[Bitboard.BLACK][type][square] = -ENDGAME_VALUES[type] - ENDGAME_TABLES[type][mirrored];
+            }
+        }
+    }
+
+    static int middlegame(Piece piece, int square) {
+        return MIDDLEGAME[Bitboard.color(piece.isWhite)][piece.type][square];
+    }
+
+    static int endgame(Piece piece, int square) {
+        return ENDGAME[Bitboard.color(piece.isWhite)][piece.type][square];
+    }
+
+    static int phase(Piece piece) {
+        return PHASE[piece.type];
+    }
+
+    /**
+     * Blends the middlegame and the endgame scores by the phase.
+     *
+     * @param middlegame  the middlegame score, positive when white is ahead
+     * @param endgame     the endgame score, positive when white is ahead
+     * @param phase       the phase, from 0 for bare Kings and Pawns up to
+     *                    MAX_PHASE; promotions can push it past the top
+     * @param isWhiteTurn whether white is to move
+     * @return the score for the player to move
+     */
+    static int taper(int middlegame, int endgame, int phase, boolean isWhiteTurn) {
+        int weight = Math.min(phase, MAX_PHASE);
+        int score = (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+        return isWhiteTurn ? score : -score;
+    }
+
+    /**
+     * Computes the score of a position from scratch.
+     *
+     * @param bitboard    the pieces of the position
+     * @param isWhiteTurn whether white is to move
+     * @return the score for the player to move
+     */
+    static int compute(Bitboard bitboard, boolean isWhiteTurn) {
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (long mask = bitboard.occupied; mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            Piece piece = bitboard.squares[square];
+            middlegame += middlegame(piece, square);
+            endgame += endgame(piece, square);
+            phase += phase(piece);
+        }
+        return taper(middlegame, endgame, phase, isWhiteTurn);
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * The Fen class sets up a game from a position written in Forsyth-Edwards
+ * Notation, such as "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+ * or in the Extended Position Description of test suites, and writes the
+ * position of a game back in FEN.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+import java.util.Arrays;
+
+public class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // The squares of the top and bottom rows, where no pawn can stand
+    private static final long FIRST_ROW = 0xFFL;
+    private static final long LAST_ROW = 0xFFL << 56;
+
+    /**
+     * Replaces the position of a game with a FEN position. Castling rights are
+     * mapped to the first-move flags of the Kings and Rooks, and pawns standing
+     * on their starting row keep their double step. The pawns of this game have
+     * no en-passant capture, so the en-passant field is read but not used. The
+     * pieces of the old position are put back on the board where they fit, so
+     * loading many positions into one game allocates little.
+     *
+     * @param state the game to set up
+     * @param fen   the position
+     * @throws IllegalArgumentException if the position cannot be read, or
+     *                                  could not arise in a game: each side
+     *                                  has one King, no pawn stands on the
+     *                                  first or last row and the side not to
+     *                                  move is not in check
+     */
+    public static void load(GameState state, String fen) {
+        String[] fields = fields(fen, 6);
+        if (fields.length < 2)
+            throw new IllegalArgumentException("Incomplete FEN: " + fen);
+        int halfmoveClock = fields.length > 4 ? parseNumber(fields[4], fen) : 0;
+        int fullMoves = fields.length > 5 ? parseNumber(fields[5], fen) : 1;
+        setUp(state, fields, halfmoveClock, fullMoves, fen);
+    }
+
+    /**
+     * Replaces the position of a game with an EPD position: the first four
+     * fields of FEN followed by operations such as "bm e4; id \"test 1\";".
+     * The move counters are read from the hmvc and fmvn operations when given.
+     *
+     * @param state the game to set up
+     * @param epd   the position
+     * @throws IllegalArgumentException if the position cannot be read, or
+     *                                  could not arise in a game, as in load
+     */
+    public static void loadEpd(GameState state, String epd) {
+        String[] fields = fields(epd, 5);
+        if (fields.length < 2)
+            throw new IllegalArgumentException("Incomplete EPD: " + epd);
+        int halfmoveClock = 0;
+        int fullMoves = 1;
+        if (fields.length > 4) {
+            String operations = fields[4];
+            int start = 0;
+            boolean quoted = false;
+            for (int i = 0; i <= operations.length(); i++) {
+                char c = i < operations.length() ? operations.charAt(i) : ';';
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ';' && !quoted) {
+                    String operation = operations.substring(start, i).trim();
+                    if (operation.startsWith("hmvc "))
+                        halfmoveClock = parseNumber(operation.substring(5).trim(), epd);
+                    else if (operation.startsWith("fmvn "))
+                        fullMoves = parseNumber(operation.substring(5).trim(), epd);
+                    start = i + 1;
+                }
+            }
+        }
+        setUp(state, fields, halfmoveClock, fullMoves, epd);
+    }
+
+    /**
+     * Writes the position of a game in FEN. The en-passant field is always "-",
+     * as the pawns of this game have no en-passant capture.
+     *
+     * @param state the game
+     * @return the position, such as the START_POSITION for a new game
+     */
+    public static String toFen(GameState state) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                Piece piece = state.getPiece(column, row);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0)
+                    fen.append((char) ('0' + empty));
+                empty = 0;
+                char letter = Move.PIECE_LETTERS.charAt(piece.type);
+                fen.append(piece.isWhite ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0)
+                fen.append((char) ('0' + empty));
+            if (row < 7)
+                fen.append('/');
+        }
+
+        fen.append(state.isWhiteTurn() ? " w " : " b ");
+        int rights = state.getCastlingRights();
+        if (rights == 0)
+            fen.append('-');
+        if ((rights & GameState.WHITE_KING_SIDE) != 0)
+            fen.append('K');
+        if ((rights & GameState.WHITE_QUEEN_SIDE) != 0)
+            fen.append('Q');
+        if ((rights & GameState.BLACK_KING_SIDE) != 0)
+            fen.append('k');
+        if ((rights & GameState.BLACK_QUEEN_SIDE) != 0)
+            fen.append('q');
+        fen.append(" - ").append(state.getHalfmoveClock()).append(' ').append(state.getMoveCounter() / 2 + 1);
+        return fen.toString();
+    }
+
+    // Set up a game from the placement, side to move and castling fields
+    private static void setUp(GameState state, String[] fields, int halfmoveClock, int fullMoves, String text) {
+        boolean isWhiteTurn;
+        if (fields[1].equals("w"))
+            isWhiteTurn = true;
+        else if (fields[1].equals("b"))
+            isWhiteTurn = false;
+        else
+            throw new IllegalArgumentException("Bad side to move in FEN: " + text);
+
+        int castlingRights = fields.length > 2 ? parseCastlingRights(fields[2], text) : 0;
+
+        // Keep the pieces of the old position to reuse them
+        Bitboard bitboard = state.bitboard;
+        Piece[] spares = new Piece[Long.bitCount(bitboard.occupied)];
+        int spareCount = 0;
+        for (long mask = bitboard.occupied; mask != 0; mask &= mask - 1)
+            spares[spareCount++] = bitboard.squares[Long.numberOfTrailingZeros(mask)];
+
+        state.clear();
+        String placement = fields[0];
+        int row = 0;
+        int column = 0;
+        for (int i = 0; i < placement.length(); i++) {
+            char c = placement.charAt(i);
+            if (c == '/') {
+                if (column != 8)
+                    throw new IllegalArgumentException("Bad row in FEN: " + text);
+                row++;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                int type = Move.PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                if (type < 0 || column > 7 || row > 7)
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + text);
+                boolean isWhite = Character.isUpperCase(c);
+
+                Piece piece = null;
+                for (int s = 0; s < spareCount; s++) {
+                    if (spares[s].type == type && spares[s].isWhite == isWhite) {
+                        piece = spares[s];
+                        spares[s] = spares[--spareCount];
+                        piece.column = column;
+                        piece.row = row;
+                        break;
+                    }
+                }
+                if (piece == null)
+                    piece = state.newPiece(type, column, row, isWhite);
+                piece.isFirstMove = isFirstMove(piece, castlingRights);
+                state.addPiece(piece);
+                column++;
+            }
+        }
+        if (row != 7 || column != 8)
+            throw new IllegalArgumentException("Bad piece placement in FEN: " + text);
+
+        // The move generator relies on a position that can arise in a game
+        long whiteKing = bitboard.pieces(true, Piece.KING);
+        long blackKing = bitboard.pieces(false, Piece.KING);
+        if (Long.bitCount(whiteKing) != 1 || Long.bitCount(blackKing) != 1)
+            throw new IllegalArgumentException("Each side needs one King in FEN: " + text);
+        long pawns = bitboard.pieces(true, Piece.PAWN) | bitboard.pieces(false, Piece.PAWN);
+        if ((pawns & (FIRST_ROW | LAST_ROW)) != 0)
+            throw new IllegalArgumentException("Pawn on the first or last row in FEN: " + text);
+        long waitingKing = isWhiteTurn ? blackKing : whiteKing;
+        if (state.attackersTo(Long.numberOfTrailingZeros(waitingKing), isWhiteTurn) != 0)
+            throw new IllegalArgumentException("The side not to move is in check in FEN: " + text);
+
+        state.setMoveCounter(2 * (Math.max(fullMoves, 1) - 1) + (isWhiteTurn ? 0 : 1));
+        state.setHalfmoveClock(halfmoveClock);
+    }
+
+    // Split a position into at most max fields at white space, the last field
+    // holding the rest of the text
+    private static String[] fields(String text, int max) {
+        String[] fields = new String[max];
+        int count = 0;
+        int i = 0;
+        int length = text.length();
+        while (count < max) {
+            while (i < length && Character.isWhitespace(text.charAt(i)))
+                i++;
+            if (i == length)
+                break;
+            int start = i;
+            if (count == max - 1) {
+                i = length;
+                while (Character.isWhitespace(text.charAt(i - 1)))
+                    i--;
+            } else {
+                while (i < length && !Character.isWhitespace(text.charAt(i)))
+                    i++;
+            }
+            fields[count++] = text.substring(start, i);
+        }
+        return count == max ? fields : Arrays.copyOf(fields, count);
+    }
+
+    // Decide if a piece has not moved yet from the castling rights and its square
+    private static boolean isFirstMove(Piece piece, int castlingRights) {
+        int homeRow = piece.isWhite ? 7 : 0;
+        int kingSide = piece.isWhite ? GameState.WHITE_KING_SIDE : GameState.BLACK_KING_SIDE;
+        int queenSide = piece.isWhite ? GameState.WHITE_QUEEN_SIDE : GameState.BLACK_QUEEN_SIDE;
+        switch (piece.type) {
+            case Piece.PAWN:
+                return piece.row == (piece.isWhite ? 6 : 1);
+            case Piece.KING:
+                return piece.row == homeRow && piece.column == 4 && (castlingRights & (kingSide | queenSide)) != 0;
+            case Piece.ROOK:
+                return piece.row == homeRow && ((piece.column == 7 && (castlingRights & kingSide) != 0)
+                        || (piece.column == 0 && (castlingRights & queenSide) != 0));
+            default:
+                return false;
+        }
+    }
+
+    private static int parseCastlingRights(String field, String fen) {
+        int rights = 0;
+        if (field.equals("-"))
+            return rights;
+        for (int i = 0; i < field.length(); i++) {
+            switch (field.charAt(i)) {
+                case 'K':
+                    rights |= GameState.WHITE_KING_SIDE;
+                    break;
+                case 'Q':
+                    rights |= GameState.WHITE_QUEEN_SIDE;
+                    break;
+                case 'k':
+                    rights |= GameState.BLACK_KING_SIDE;
+                    break;
+                case 'q':
+                    rights |= GameState.BLACK_QUEEN_SIDE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Bad castling rights in FEN: " + fen);
+            }
+        }
+        return rights;
+    }
+
+    private static int parseNumber(String field, String fen) {
+        int number;
+        try {
+            number = Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move number in FEN: " + fen, e);
+        }
+        if (number < 0)
+            throw new IllegalArgumentException("Bad move number in FEN: " + fen);
+        return number;
+    }
+}
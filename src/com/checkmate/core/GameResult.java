@@ -0,0 +1,41 @@
+/**
+ * The GameResult enum is the state of a game as adjudicated by
+ * GameState.getResult: still going on, won by a checkmate, or drawn by one of
+ * the draw rules.
+ */
+
+package com.checkmate.core;
+
+public enum GameResult {
+
+    ONGOING("*", "ongoing", "Game On"),
+    WHITE_WINS("1-0", "checkmate", "Checkmate!"),
+    BLACK_WINS("0-1", "checkmate", "Checkmate!"),
+    STALEMATE("1/2-1/2", "stalemate", "Stalemate"),
+    REPETITION("1/2-1/2", "repetition", "Threefold Repetition"),
+    FIFTY_MOVES("1/2-1/2", "fifty-moves", "Fifty-Move Rule"),
+    INSUFFICIENT_MATERIAL("1/2-1/2", "material", "Insufficient Material");
+
+    // The result as written in PGN, such as "1-0"
+    public final String score;
+
+    // Why the game ended, as one word for the server protocol
+    public final String reason;
+
+    // Why the game ended, as shown to the players
+    public final String title;
+
+    GameResult(String score, String reason, String title) {
+        this.score = score;
+        this.reason = reason;
+        this.title = title;
+    }
+
+    public boolean isOver() {
+        return this != ONGOING;
+    }
+
+    public boolean isDraw() {
+        return score.equals("1/2-1/2");
+    }
+}
@@ -0,0 +1,916 @@
+/**
+ * The GameState class holds the rules and the state of one chess game: the
+ * pieces, whose turn it is and the pieces taken by each player. It has no
+ * dependency on Swing, so many games can run side by side in one JVM without a
+ * display; the Board class is a view over it.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GameState {
+
+    // Castling rights, set while the King and the Rook of that side have not moved
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    // Largest number of moves generateValidMoves can add for a position
+    public static final int MAX_POSITION_MOVES = 512;
+
+    final Bitboard bitboard = new Bitboard();
+    final CheckMate checkMate = new CheckMate(this);
+
+    // Count the total number of the moves in the game
+    int moveCounter = 0;
+    int castlingRights = 0;
+
+    // Plies since the last capture or pawn move, for the fifty-move rule
+    int halfmoveClock = 0;
+
+    // Zobrist key of the position, updated with every move
+    long key = Zobrist.CASTLING[0];
+
+    // Middlegame and endgame scores of the pieces for white, and the phase of
+    // the game, updated with every move
+    int middlegame = 0;
+    int endgame = 0;
+    int phase = 0;
+
+    // Records of the moves made so far, used to take them back
+    UndoRecord[] undoStack = new UndoRecord[64];
+    int undoCount = 0;
+
+    // Zobrist key of the position before each move of the undo stack, kept in
+    // a flat array so the repetition check scans it without following records
+    long[] keyHistory = new long[64];
+
+    // Target squares of one piece, reused by generateValidMoves
+    private final int[] pieceMoves = new int[Piece.MAX_MOVES];
+
+    // Legal move masks of one player, set by computeLegalMasks: the pieces giving
+    // check to its King, the squares a move other than a King move must reach,
+    // the pieces pinned to the King and the line each pinned piece may move on
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+    private final long[] pinRays = new long[64];
+
+    // Pieces taken by the white and the black player
+    final ArrayList<Piece> whiteEatenPieces = new ArrayList<>();
+    final ArrayList<Piece> blackEatenPieces = new ArrayList<>();
+
+    int rows = 8;
+    int columns = 8;
+
+    /**
+     * Creates a game with the pieces in their starting position.
+     */
+    public GameState() {
+        addPiece();
+    }
+
+    public Piece getPiece(int column, int row) {
+        return bitboard.get(column, row);
+    }
+
+    /**
+     * Returns the pieces currently on the board.
+     *
+     * @return a new list of the pieces on the board
+     */
+    public List<Piece> getPieces() {
+        ArrayList<Piece> pieces = new ArrayList<>(Long.bitCount(bitboard.occupied));
+        for (long mask = bitboard.occupied; mask != 0; mask &= mask - 1)
+            pieces.add(bitboard.squares[Long.numberOfTrailingZeros(mask)]);
+        return pieces;
+    }
+
+    /**
+     * Returns the squares of the pieces of one kind and color.
+     *
+     * @param isWhite the color of the pieces
+     * @param type    the piece type, such as Piece.QUEEN
+     * @return the mask of the squares (bit row * 8 + column)
+     */
+    public long pieces(boolean isWhite, int type) {
+        return bitboard.pieces(isWhite, type);
+    }
+
+    /**
+     * Returns the occupied squares.
+     *
+     * @return the mask of the squares holding a piece
+     */
+    public long occupied() {
+        return bitboard.occupied;
+    }
+
+    /**
+     * Returns the pieces a player has taken from the opponent.
+     *
+     * @param isWhite the color of the capturing player
+     * @return the taken pieces, in the order they were taken
+     */
+    public List<Piece> getEatenPieces(boolean isWhite) {
+        return isWhite ? whiteEatenPieces : blackEatenPieces;
+    }
+
+    /**
+     * Returns the number of moves played so far.
+     *
+     * @return the move counter
+     */
+    public int getMoveCounter() {
+        return moveCounter;
+    }
+
+    /**
+     * Sets the number of moves played so far, which decides whose turn it is.
+     *
+     * @param moveCounter the move counter, even when white is to move
+     */
+    public void setMoveCounter(int moveCounter) {
+        if (moveCounter % 2 != this.moveCounter % 2)
+            key ^= Zobrist.BLACK_TO_MOVE;
+        this.moveCounter = moveCounter;
+    }
+
+    /**
+     * Returns the number of plies made since the last capture or pawn move.
+     *
+     * @return the halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Sets the number of plies made since the last capture or pawn move, as
+     * read from a FEN position.
+     *
+     * @param halfmoveClock the halfmove clock
+     */
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Returns the castling rights of both players, as a combination of the
+     * WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     * flags.
+     *
+     * @return the castling rights
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Returns the Zobrist key of the position: the placement of the pieces, the
+     * side to move and the castling rights. Positions that are the same have the
+     * same key.
+     *
+     * @return the 64-bit key of the position
+     */
+    public long positionKey() {
+        return key;
+    }
+
+    /**
+     * Computes the Zobrist key of the position from scratch, to check the key
+     * kept by makeMove and unmakeMove.
+     *
+     * @return the 64-bit key of the position
+     */
+    public long computePositionKey() {
+        return Zobrist.compute(bitboard, isWhiteTurn(), castlingRights);
+    }
+
+    /**
+     * Returns the tapered score of the position: the value of the pieces and of
+     * their squares, blended between the middlegame and the endgame tables by
+     * the material left. It is kept up to date by every move, so reading it
+     * costs nothing.
+     *
+     * @return the score in centipawns, positive when the player to move is ahead
+     */
+    public int evaluate() {
+        return Evaluation.taper(middlegame, endgame, phase, isWhiteTurn());
+    }
+
+    /**
+     * Computes the score of the position from scratch, to check the score kept
+     * by the moves.
+     *
+     * @return the score in centipawns, positive when the player to move is ahead
+     */
+    public int computeEvaluation() {
+        return Evaluation.compute(bitboard, isWhiteTurn());
+    }
+
+    /**
+     * Returns whether it is the white player's turn.
+     *
+     * @return true if white is to move, false otherwise
+     */
+    public boolean isWhiteTurn() {
+        return moveCounter % 2 == 0;
+    }
+
+    /**
+     * Checks if the King of the player to move is in check.
+     *
+     * @return true if the King is attacked, false otherwise or if it is missing
+     */
+    public boolean isInCheck() {
+        long king = bitboard.pieces(isWhiteTurn(), Piece.KING);
+        return king != 0 && attackersTo(Long.numberOfTrailingZeros(king), !isWhiteTurn()) != 0;
+    }
+
+    public boolean isValidMove(Move move) {
+        // Basic Validation
+        if (sameTeam(move.piece, move.capture))
+            return false;
+        if (!(move.newColumn < 8 && move.newColumn >= 0) || !(move.newRow < 8 && move.newRow >= 0))
+            return false;
+        if (!move.piece.isValidMovement(move.newColumn, move.newRow))
+            return false;
+        if (move.piece.moveHitsPiece(move.newColumn, move.newRow))
+            return false;
+
+        computeLegalMasks(move.piece.isWhite);
+        return isLegal(move.piece, Bitboard.square(move.newColumn, move.newRow));
+    }
+
+    /**
+     * Computes the legal move masks of a player from the position: the pieces
+     * checking its King, the squares that answer the check and the pinned pieces
+     * with their lines. Only the Rook and the Queen slide, so only they can pin
+     * a piece or have their check blocked; every other check must be answered by
+     * taking the checking piece or moving the King.
+     *
+     * @param isWhite the color of the player
+     */
+    void computeLegalMasks(boolean isWhite) {
+        checkers = 0;
+        checkMask = -1L;
+        pinned = 0;
+        long king = bitboard.pieces(isWhite, Piece.KING);
+        if (king == 0)
+            return;
+        int kingSquare = Long.numberOfTrailingZeros(king);
+
+        long[] enemy = bitboard.pieces[Bitboard.color(!isWhite)];
+        checkers = attackersTo(kingSquare, !isWhite);
+        if (Long.bitCount(checkers) > 1) {
+            // Only the King can escape two checks
+            checkMask = 0;
+        } else if (checkers != 0) {
+            // A check by a slider can also be blocked; the Bishop jumps over pieces
+            int checker = Long.numberOfTrailingZeros(checkers);
+            int type = bitboard.squares[checker].type;
+            checkMask = checkers;
+            if (type == Piece.ROOK || type == Piece.QUEEN)
+                checkMask |= Attacks.BETWEEN[kingSquare][checker];
+        }
+
+        // A slider seen from the King through nothing but own pieces pins the own
+        // piece standing between them, if there is exactly one
+        long enemyPieces = bitboard.colorMask(!isWhite);
+        long snipers = (Attacks.rook(kingSquare, enemyPieces) & (enemy[Piece.ROOK] | enemy[Piece.QUEEN]))
+                | (Attacks.diagonal(kingSquare, enemyPieces) & enemy[Piece.QUEEN]);
+        long own = bitboard.colorMask(isWhite);
+        for (; snipers != 0; snipers &= snipers - 1) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long between = Attacks.BETWEEN[kingSquare][sniper];
+            long blockers = between & own;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = between | (1L << sniper);
+            }
+        }
+    }
+
+    /**
+     * Checks if moving a piece to a square leaves its King out of check, using
+     * the masks of the last computeLegalMasks call for the piece's color. The
+     * movement itself is assumed valid for the piece. Only a King move needs
+     * its target tested for attacks.
+     *
+     * @param piece  the piece to move
+     * @param square the target square index
+     * @return true if the King is not in check after the move, false otherwise
+     */
+    boolean isLegal(Piece piece, int square) {
+        int from = Bitboard.square(piece.column, piece.row);
+        if (piece.type == Piece.KING)
+            // The King no longer blocks the lines through its old square
+            return attackersTo(square, !piece.isWhite, bitboard.occupied & ~(1L << from)) == 0;
+        long target = 1L << square;
+        if ((checkMask & target) == 0)
+            return false;
+        return (pinned & (1L << from)) == 0 || (pinRays[from] & target) != 0;
+    }
+
+    /**
+     * Adds the valid target squares of a piece to a sink, as square indexes (row *
+     * 8 + column). Only the squares produced by the piece's move generator are
+     * tried.
+     *
+     * @param piece the piece to move
+     * @param moves the sink, with room for Piece.MAX_MOVES squares
+     * @return the number of valid target squares
+     */
+    public int generateValidMoves(Piece piece, int[] moves) {
+        computeLegalMasks(piece.isWhite);
+        return legalMoves(piece, moves);
+    }
+
+    // Keep the generated target squares of a piece that are legal under the
+    // current masks
+    private int legalMoves(Piece piece, int[] moves) {
+        int generated = piece.generateMoves(moves, 0);
+        int count = 0;
+        for (int i = 0; i < generated; i++) {
+            int square = moves[i];
+            if (isLegal(piece, square))
+                moves[count++] = square;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the valid moves of the player whose turn it is to a sink, packed as
+     * described in Move.encode. A pawn reaching its last row adds one move for
+     * each promotion type. A player whose King was taken has no moves left.
+     *
+     * @param moves the sink, with room for MAX_POSITION_MOVES moves
+     * @return the number of valid moves
+     */
+    public int generateValidMoves(int[] moves) {
+        int count = 0;
+        if (findKing(isWhiteTurn()) == null)
+            return count;
+        computeLegalMasks(isWhiteTurn());
+        for (long mask = bitboard.colorMask(isWhiteTurn()); mask != 0; mask &= mask - 1) {
+            int from = Long.numberOfTrailingZeros(mask);
+            Piece piece = bitboard.squares[from];
+            int targets = legalMoves(piece, pieceMoves);
+            for (int i = 0; i < targets; i++) {
+                int to = pieceMoves[i];
+                if (piece.type == Piece.PAWN && to >>> 3 == piece.rowEnd) {
+                    moves[count++] = Move.encode(from, to, Piece.QUEEN);
+                    moves[count++] = Move.encode(from, to, Piece.ROOK);
+                    moves[count++] = Move.encode(from, to, Piece.BISHOP);
+                    moves[count++] = Move.encode(from, to, Piece.KNIGHT);
+                } else {
+                    moves[count++] = Move.encode(from, to, 0);
+                }
+            }
+        }
+        return count;
+    }
+
+    public boolean sameTeam(Piece p1, Piece p2) {
+        if (p1 == null || p2 == null)
+            return false;
+        return p1.isWhite == p2.isWhite;
+    }
+
+    /**
+     * Checks if it is the turn of the player owning a piece.
+     *
+     * @param piece the piece to be moved
+     * @return true if the piece's owner is to move, false otherwise
+     */
+    public boolean validTurn(Piece piece) {
+        if (piece == null)
+            return false;
+        return isWhiteTurn() == piece.isWhite;
+    }
+
+    Piece findKing(boolean isWhite) {
+        long king = bitboard.pieces(isWhite, Piece.KING);
+        if (king == 0)
+            return null;
+        return bitboard.squares[Long.numberOfTrailingZeros(king)];
+    }
+
+    /**
+     * Checks if a move brings a pawn to its last row.
+     *
+     * @param move the move to check
+     * @return true if the move promotes a pawn, false otherwise
+     */
+    public boolean isPromotion(Move move) {
+        return move.piece.type == Piece.PAWN && move.newRow == move.piece.rowEnd;
+    }
+
+    /**
+     * Applies a move to the game and passes the turn to the other player. A pawn
+     * reaching its last row is replaced by the piece type held in the move's
+     * promotion field.
+     *
+     * @param move the move to make, already checked by isValidMove
+     */
+    public void makeMove(Move move) {
+        if (move.piece == null)
+            return;
+        makeMove(move.piece, move.newColumn, move.newRow, move.promotion);
+    }
+
+    /**
+     * Applies a move to the game and passes the turn to the other player. The
+     * move can be taken back with unmakeMove.
+     *
+     * @param piece     the piece to move
+     * @param column    the target column
+     * @param row       the target row
+     * @param promotion the type of the piece a pawn reaching its last row becomes
+     */
+    public void makeMove(Piece piece, int column, int row, int promotion) {
+        UndoRecord undo = pushUndo();
+        undo.piece = piece;
+        undo.fromColumn = piece.column;
+        undo.fromRow = piece.row;
+        undo.wasFirstMove = piece.isFirstMove;
+        undo.castlingRights = castlingRights;
+        undo.halfmoveClock = halfmoveClock;
+        undo.key = key;
+        keyHistory[undoCount - 1] = key;
+        undo.middlegame = middlegame;
+        undo.endgame = endgame;
+        undo.phase = phase;
+        undo.isPromotion = false;
+        undo.rook = null;
+
+        capture(undo, getPiece(column, row));
+        halfmoveClock = piece.type == Piece.PAWN || undo.captured != null ? 0 : halfmoveClock + 1;
+
+        key ^= Zobrist.piece(piece, Bitboard.square(piece.column, piece.row))
+                ^ Zobrist.piece(piece, Bitboard.square(column, row));
+        score(piece, Bitboard.square(piece.column, piece.row), -1);
+        score(piece, Bitboard.square(column, row), 1);
+        bitboard.move(piece, column, row);
+        piece.isFirstMove = false;
+
+        if (piece.type == Piece.PAWN && row == piece.rowEnd) {
+            pawnPromote(undo, promotion);
+        }
+        undo.move = Move.encode(Bitboard.square(undo.fromColumn, undo.fromRow), Bitboard.square(column, row),
+                undo.isPromotion ? undo.promoted.type : 0);
+        if (piece.type == Piece.KING && undo.wasFirstMove && Math.abs(column - undo.fromColumn) == 2) {
+            kingCastle(undo);
+        }
+        updateCastlingRights();
+        key ^= Zobrist.BLACK_TO_MOVE;
+        moveCounter++; // counter increment to switch turns
+
+        assert key == computePositionKey() : "Zobrist key out of sync after makeMove";
+        assert evaluate() == computeEvaluation() : "Evaluation out of sync after makeMove";
+    }
+
+    /**
+     * Applies a packed move to the game and passes the turn to the other player.
+     * The move can be taken back with unmakeMove.
+     *
+     * @param move the move, packed as described in Move.encode
+     */
+    public void makeMove(int move) {
+        int to = Move.to(move);
+        makeMove(bitboard.squares[Move.from(move)], to & 7, to >>> 3, Move.promotion(move));
+    }
+
+    /**
+     * Takes back the last move made with makeMove.
+     */
+    public void unmakeMove() {
+        UndoRecord undo = undoStack[--undoCount];
+        Piece piece = undo.piece;
+
+        moveCounter--;
+        castlingRights = undo.castlingRights;
+        halfmoveClock = undo.halfmoveClock;
+        key = undo.key;
+        middlegame = undo.middlegame;
+        endgame = undo.endgame;
+        phase = undo.phase;
+
+        if (undo.rook != null) {
+            bitboard.move(undo.rook, undo.rookColumn, undo.rook.row);
+            undo.rook.isFirstMove = undo.rookWasFirstMove;
+        }
+        if (undo.isPromotion) {
+            bitboard.remove(undo.promoted);
+            bitboard.add(piece);
+        }
+        bitboard.move(piece, undo.fromColumn, undo.fromRow);
+        piece.isFirstMove = undo.wasFirstMove;
+
+        if (undo.captured != null) {
+            bitboard.add(undo.captured);
+            List<Piece> eatenPieces = getEatenPieces(!undo.captured.isWhite);
+            eatenPieces.remove(eatenPieces.size() - 1);
+        }
+
+        assert key == computePositionKey() : "Zobrist key out of sync after unmakeMove";
+        assert evaluate() == computeEvaluation() : "Evaluation out of sync after unmakeMove";
+    }
+
+    /**
+     * Returns the number of moves that can be taken back with unmakeMove.
+     *
+     * @return the number of moves on the undo stack
+     */
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    /**
+     * Returns the moves made so far, the ones unmakeMove can take back, from
+     * the first.
+     *
+     * @return the moves packed as in Move.encode
+     */
+    public int[] getMoves() {
+        int[] moves = new int[undoCount];
+        for (int i = 0; i < undoCount; i++)
+            moves[i] = undoStack[i].move;
+        return moves;
+    }
+
+    // The squares the last move changed: the ones the piece left and reached,
+    // and the ones of the Rook when the King castled
+    long lastMoveSquares() {
+        if (undoCount == 0)
+            return 0;
+        UndoRecord undo = undoStack[undoCount - 1];
+        long squares = 1L << Move.from(undo.move) | 1L << Move.to(undo.move);
+        if (undo.rook != null)
+            squares |= 1L << Bitboard.square(undo.rookColumn, undo.rook.row)
+                    | 1L << Bitboard.square(undo.rook.column, undo.rook.row);
+        return squares;
+    }
+
+    // Returns the next free record of the undo stack, growing it when full
+    private UndoRecord pushUndo() {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+            keyHistory = Arrays.copyOf(keyHistory, undoStack.length);
+        }
+        UndoRecord undo = undoStack[undoCount];
+        if (undo == null) {
+            undo = new UndoRecord();
+            undoStack[undoCount] = undo;
+        }
+        undoCount++;
+        return undo;
+    }
+
+    public boolean isGameOver(Move lastMove) {
+        // The player who just moved (lastMove.piece.isWhite) is checking if the
+        // opponent (!lastMove.piece.isWhite) is mated. A stalemate is not
+        // treated as game over here; getResult tells the draws apart.
+        return !hasValidMove(!lastMove.piece.isWhite) && checkers != 0;
+    }
+
+    /**
+     * Adjudicates the game after the last move: a checkmate, a stalemate, a
+     * draw by insufficient material, by the fifty-move rule or by threefold
+     * repetition, or a game that goes on. It is cheap enough to call after
+     * every move: the search for a valid move stops at the first one found, and
+     * the draw rules read counters and a short run of the key history.
+     *
+     * @return the result
+     */
+    public GameResult getResult() {
+        boolean isWhite = isWhiteTurn();
+        if (!hasValidMove(isWhite)) {
+            if (checkers == 0)
+                return GameResult.STALEMATE;
+            return isWhite ? GameResult.BLACK_WINS : GameResult.WHITE_WINS;
+        }
+        if (hasInsufficientMaterial())
+            return GameResult.INSUFFICIENT_MATERIAL;
+        if (halfmoveClock >= 100)
+            return GameResult.FIFTY_MOVES;
+        if (repetitions() >= 2)
+            return GameResult.REPETITION;
+        return GameResult.ONGOING;
+    }
+
+    /**
+     * Counts the earlier times the position occurred with the same player to
+     * move. Only the positions since the last capture or pawn move are looked
+     * at, as none before it can come back.
+     *
+     * @return the number of earlier occurrences, 2 for a threefold repetition
+     */
+    public int repetitions() {
+        int count = 0;
+        int first = Math.max(0, undoCount - halfmoveClock);
+        for (int i = undoCount - 2; i >= first; i -= 2)
+            if (keyHistory[i] == key)
+                count++;
+        return count;
+    }
+
+    /**
+     * Checks if neither player has the pieces to give mate: a King alone
+     * against a King with at most one Bishop or Knight. The Bishop of this game
+     * leaves its square color with its side step, but it still cannot force
+     * mate, as the endgame tables show.
+     *
+     * @return true if no mate can be given
+     */
+    public boolean hasInsufficientMaterial() {
+        long[] white = bitboard.pieces[Bitboard.WHITE];
+        long[] black = bitboard.pieces[Bitboard.BLACK];
+        if ((white[Piece.PAWN] | black[Piece.PAWN] | white[Piece.ROOK] | black[Piece.ROOK]
+                | white[Piece.QUEEN] | black[Piece.QUEEN]) != 0)
+            return false;
+        return Long.bitCount(white[Piece.BISHOP] | black[Piece.BISHOP] | white[Piece.KNIGHT]
+                | black[Piece.KNIGHT]) <= 1;
+    }
+
+    // Check if a player has a valid move, leaving the pieces giving check to
+    // its King in checkers. The checks and pins are found once, then only the
+    // pieces of the player are visited until one can move.
+    private boolean hasValidMove(boolean isWhite) {
+        computeLegalMasks(isWhite);
+        for (long mask = bitboard.colorMask(isWhite); mask != 0; mask &= mask - 1) {
+            Piece piece = bitboard.squares[Long.numberOfTrailingZeros(mask)];
+            if (legalMoves(piece, pieceMoves) > 0)
+                return true;
+        }
+        return false;
+    }
+
+    // Add a piece on a square to the evaluation, or take it away with a sign of -1
+    private void score(Piece piece, int square, int sign) {
+        middlegame += sign * Evaluation.middlegame(piece, square);
+        endgame += sign * Evaluation.endgame(piece, square);
+        phase += sign * Evaluation.phase(piece);
+    }
+
+    private void capture(UndoRecord undo, Piece piece) {
+        undo.captured = piece;
+        if (piece != null) {
+            key ^= Zobrist.piece(piece, Bitboard.square(piece.column, piece.row));
+            score(piece, Bitboard.square(piece.column, piece.row), -1);
+            bitboard.remove(piece);
+            // The piece is kept by the player of the other color
+            getEatenPieces(!piece.isWhite).add(piece);
+        }
+    }
+
+    public boolean canProtect(int column, int row, Piece piece) {
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return false;
+        int square = Bitboard.square(column, row);
+        int count = generateValidMoves(piece, pieceMoves);
+        for (int i = 0; i < count; i++)
+            if (pieceMoves[i] == square)
+                return true;
+        return false;
+    }
+
+    /**
+     * Replaces a pawn that reached its last row with a new piece.
+     *
+     * @param undo      the record of the move that brought the pawn to its last
+     *                  row
+     * @param promotion the type of the new piece (Queen, Rook, Bishop or Knight)
+     */
+    private void pawnPromote(UndoRecord undo, int promotion) {
+        Piece pawn = undo.piece;
+        if (promotion != Piece.ROOK && promotion != Piece.BISHOP && promotion != Piece.KNIGHT)
+            promotion = Piece.QUEEN;
+
+        // Reuse the piece of an earlier promotion made from this record when it
+        // matches, so that trying promotions does not allocate
+        Piece promoted = undo.promoted;
+        if (promoted != null && promoted.type == promotion && promoted.isWhite == pawn.isWhite) {
+            promoted.column = pawn.column;
+            promoted.row = pawn.row;
+            promoted.isFirstMove = true;
+        } else {
+            promoted = newPiece(promotion, pawn.column, pawn.row, pawn.isWhite);
+        }
+        int square = Bitboard.square(pawn.column, pawn.row);
+        key ^= Zobrist.piece(pawn, square) ^ Zobrist.piece(promoted, square);
+        score(pawn, square, -1);
+        score(promoted, square, 1);
+        bitboard.remove(pawn);
+        bitboard.add(promoted);
+        undo.promoted = promoted;
+        undo.isPromotion = true;
+    }
+
+    /**
+     * Creates a new piece of a given type in this game.
+     *
+     * @param type    the piece type
+     * @param column  the column of the piece
+     * @param row     the row of the piece
+     * @param isWhite the color of the piece
+     * @return the new piece
+     */
+    public Piece newPiece(int type, int column, int row, boolean isWhite) {
+        switch (type) {
+            case Piece.KING:
+                return new King(this, column, row, isWhite);
+            case Piece.QUEEN:
+                return new Queen(this, column, row, isWhite);
+            case Piece.BISHOP:
+                return new Bishop(this, column, row, isWhite);
+            case Piece.KNIGHT:
+                return new Knight(this, column, row, isWhite);
+            case Piece.ROOK:
+                return new Rook(this, column, row, isWhite);
+            default:
+                return new Pawn(this, column, row, isWhite);
+        }
+    }
+
+    // Move the Rook next to a King that castled
+    private void kingCastle(UndoRecord undo) {
+        Piece king = undo.piece;
+        Piece rook = null;
+        int rookColumn = 0;
+        if (king.column == 6) {
+            rook = getPiece(7, king.row);
+            rookColumn = 5;
+        } else if (king.column == 2) {
+            rook = getPiece(0, king.row);
+            rookColumn = 3;
+        }
+        if (rook != null && rook.type == Piece.ROOK && rook.isWhite == king.isWhite) {
+            undo.rook = rook;
+            undo.rookColumn = rook.column;
+            undo.rookWasFirstMove = rook.isFirstMove;
+            key ^= Zobrist.piece(rook, Bitboard.square(rook.column, rook.row))
+                    ^ Zobrist.piece(rook, Bitboard.square(rookColumn, rook.row));
+            score(rook, Bitboard.square(rook.column, rook.row), -1);
+            score(rook, Bitboard.square(rookColumn, rook.row), 1);
+            bitboard.move(rook, rookColumn, rook.row);
+            rook.isFirstMove = false;
+        }
+    }
+
+    // Recompute the castling rights and replace them in the key
+    private void updateCastlingRights() {
+        int rights = computeCastlingRights();
+        key ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+        castlingRights = rights;
+    }
+
+    // Derive the castling rights from the first-move flags of the Kings and Rooks
+    int computeCastlingRights() {
+        return castlingRights(true, 7, WHITE_KING_SIDE, WHITE_QUEEN_SIDE)
+                | castlingRights(false, 0, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
+    }
+
+    private int castlingRights(boolean isWhite, int row, int kingSide, int queenSide) {
+        Piece king = getPiece(4, row);
+        if (king == null || king.type != Piece.KING || king.isWhite != isWhite || !king.isFirstMove)
+            return 0;
+        int rights = 0;
+        Piece rook = getPiece(7, row);
+        if (rook != null && rook.type == Piece.ROOK && rook.isWhite == isWhite && rook.isFirstMove)
+            rights |= kingSide;
+        rook = getPiece(0, row);
+        if (rook != null && rook.type == Piece.ROOK && rook.isWhite == isWhite && rook.isFirstMove)
+            rights |= queenSide;
+        return rights;
+    }
+
+    /**
+     * Finds the pieces of one player that attack a square, that is the pieces
+     * that could take an opponent piece standing on it. Each kind of piece is
+     * looked up in the attack tables from the square itself, so no piece is
+     * visited.
+     *
+     * @param square  the square index (row * 8 + column)
+     * @param byWhite the color of the attacking pieces
+     * @return the mask of the squares of the attacking pieces
+     */
+    public long attackersTo(int square, boolean byWhite) {
+        return attackersTo(square, byWhite, bitboard.occupied);
+    }
+
+    // Finds the attackers of a square with the given squares blocking the lines
+    private long attackersTo(int square, boolean byWhite, long occupied) {
+        long[] pieces = bitboard.pieces[Bitboard.color(byWhite)];
+        // A pawn attacks a square if a pawn of the other color on that square
+        // would attack the pawn's square
+        return (Attacks.PAWN[Bitboard.color(!byWhite)][square] & pieces[Piece.PAWN])
+                | (Attacks.KNIGHT[square] & pieces[Piece.KNIGHT])
+                | (Attacks.BISHOP[square] & pieces[Piece.BISHOP])
+                | (Attacks.KING[square] & pieces[Piece.KING])
+                | (Attacks.rook(square, occupied) & pieces[Piece.ROOK])
+                | (Attacks.queen(square, occupied) & pieces[Piece.QUEEN]);
+    }
+
+    public boolean isSquareUnderAttack(int col, int row, boolean byWhite) {
+        return attackersTo(Bitboard.square(col, row), byWhite) != 0;
+    }
+
+    /**
+     * Adds a piece to the game on its column and row.
+     *
+     * @param piece the piece to add
+     */
+    public void addPiece(Piece piece) {
+        key ^= Zobrist.piece(piece, Bitboard.square(piece.column, piece.row));
+        score(piece, Bitboard.square(piece.column, piece.row), 1);
+        bitboard.add(piece);
+        updateCastlingRights();
+    }
+
+    /**
+     * Removes every piece and resets the game to an empty board with white to
+     * move.
+     */
+    public void clear() {
+        bitboard.clear();
+        whiteEatenPieces.clear();
+        blackEatenPieces.clear();
+        moveCounter = 0;
+        castlingRights = 0;
+        halfmoveClock = 0;
+        key = Zobrist.CASTLING[0];
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        undoCount = 0;
+        // The pieces of the old position may be put back on the board by Fen,
+        // so the promoted pieces kept for reuse by the records are dropped
+        for (UndoRecord undo : undoStack)
+            if (undo != null)
+                undo.promoted = null;
+    }
+
+    /**
+     * Creates an independent copy of the game, with pieces of its own, so that it
+     * can be searched on another thread. The moves made so far are not copied and
+     * cannot be taken back in the copy.
+     *
+     * @return the copy of the game
+     */
+    public GameState copy() {
+        GameState copy = new GameState();
+        copy.clear();
+        for (long mask = bitboard.occupied; mask != 0; mask &= mask - 1) {
+            Piece piece = bitboard.squares[Long.numberOfTrailingZeros(mask)];
+            Piece pieceCopy = copy.newPiece(piece.type, piece.column, piece.row, piece.isWhite);
+            pieceCopy.isFirstMove = piece.isFirstMove;
+            copy.addPiece(pieceCopy);
+        }
+        for (Piece piece : whiteEatenPieces)
+            copy.whiteEatenPieces.add(copy.newPiece(piece.type, piece.column, piece.row, piece.isWhite));
+        for (Piece piece : blackEatenPieces)
+            copy.blackEatenPieces.add(copy.newPiece(piece.type, piece.column, piece.row, piece.isWhite));
+        copy.setMoveCounter(moveCounter);
+        copy.halfmoveClock = halfmoveClock;
+        return copy;
+    }
+
+    /**
+     * Sets up the starting position.
+     */
+    public void addPiece() {
+        clear();
+
+        for (int c = 0; c < columns; c++)
+            addPiece(new Pawn(this, c, 1, false));
+        for (int c = 0; c < columns; c++)
+            addPiece(new Pawn(this, c, 6, true));
+
+        addPiece(new King(this, 4, 0, false));
+        addPiece(new King(this, 4, 7, true));
+        addPiece(new Queen(this, 3, 0, false));
+        addPiece(new Queen(this, 3, 7, true));
+
+        addPiece(new Bishop(this, 5, 0, false));
+        addPiece(new Bishop(this, 2, 0, false));
+        addPiece(new Bishop(this, 5, 7, true));
+        addPiece(new Bishop(this, 2, 7, true));
+
+        addPiece(new Knight(this, 1, 0, false));
+        addPiece(new Knight(this, 6, 0, false));
+        addPiece(new Knight(this, 1, 7, true));
+        addPiece(new Knight(this, 6, 7, true));
+
+        addPiece(new Rook(this, 0, 0, false));
+        addPiece(new Rook(this, 7, 0, false));
+        addPiece(new Rook(this, 0, 7, true));
+        addPiece(new Rook(this, 7, 7, true));
+    }
+}
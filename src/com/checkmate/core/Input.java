@@ -1,8 +1,6 @@
 package com.checkmate.core;
 
 import com.checkmate.pieces.*;
-import com.checkmate.ui.GameFrame;
-import com.checkmate.ui.GameOver;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
@@ -23,6 +21,10 @@ public class Input extends MouseAdapter {
     // Method called when mouse is pressed down
     @Override
     public void mousePressed(MouseEvent e) {
+        // The board is locked while the computer thinks about its move
+        if (board.isComputerTurn())
+            return;
+
         // First Mouse Click
         if (clickCount % 2 == 0) {
 
@@ -36,13 +38,10 @@ public class Input extends MouseAdapter {
             // Get the piece object that is on that tile
             Piece pieceXY = board.getPiece(column, row);
 
-            // If a piece was found, select it
+            // If a piece was found, select it; the squares of the selection are
+            // painted again by select
             if (pieceXY != null) {
-                board.selectedPiece = pieceXY;
-            }
-            if (board.selectedPiece != null) {
-                // Repaint the board to show the updated piece position
-                board.repaint();
+                board.select(pieceXY);
             }
         }
         // Second Mouse click
@@ -56,44 +55,16 @@ public class Input extends MouseAdapter {
 
             // If a piece is currently selected
             if (board.selectedPiece != null) {
-                // Create a Move object representing the piece's movement
-                Move move = new Move(board, board.selectedPiece, column, row);
-
-                // If it's valid move and turn, make the move on the board
-                if (board.isValidMove(move) && board.validTurn()) {
-                    Move.counter++; // counter increment to switch turns
-                    board.makeMove(move);
-
-                    // Update UI Turn Label
-                    if (com.checkmate.core.Main.frame instanceof com.checkmate.ui.GameFrame) {
-                        // counter=1 (Odd) -> Next is Black.
-                        // counter=2 (Even) -> Next is White.
-                        // updateTurnLabel(isWhite)
-                        ((com.checkmate.ui.GameFrame) com.checkmate.core.Main.frame)
-                                .updateTurnLabel(Move.counter % 2 == 0);
-                    }
-
-                    if (board.isGameOver(move)) {
-                        String winner = move.piece.isWhite ? com.checkmate.ui.GameFrame.p1NameText
-                                : com.checkmate.ui.GameFrame.p2NameText;
-                        new com.checkmate.ui.GameOver(winner);
-                        // Don't dispose main frame immediately so they see the board,
-                        // or dispose it? The GameOver screen has 'Play Again'.
-                        // Usually keep it visible behind or dispose.
-                        // GameOver constructor sets undocorated dialog.
-                        // Let's dispose it in GameOver 'Play Again' or 'Exit'.
-                    }
-                }
-                // If the move is invalid, return the piece to its original position
-                else {
-                    board.selectedPiece.yPos = board.selectedPiece.row * board.tileSize;
-                    board.selectedPiece.xPos = board.selectedPiece.column * board.tileSize;
+                // If it's valid move and turn, make the move on the board; the
+                // targets were found when the piece was selected
+                if (board.isLegalTarget(column, row)) {
+                    // Create a Move object representing the piece's movement
+                    board.makeMove(new Move(board.state, board.selectedPiece, column, row));
                 }
             }
 
-            // Deselect the piece and repaint the board
-            board.selectedPiece = null;
-            board.repaint();
+            // Deselect the piece, which repaints its squares
+            board.select(null);
         }
     }
 
@@ -1,14 +1,72 @@
 package com.checkmate.core;
 
+import com.checkmate.server.GameServer;
+import com.checkmate.tools.ArchiveBench;
+import com.checkmate.tools.ArchiveMaker;
+import com.checkmate.tools.BitbaseMaker;
+import com.checkmate.tools.BookMaker;
+import com.checkmate.tools.EpdCheck;
+import com.checkmate.tools.Perft;
+import com.checkmate.tools.PgnCheck;
+import com.checkmate.tools.SearchBench;
+import com.checkmate.tools.ServerLoad;
+import com.checkmate.tools.Uci;
 import com.checkmate.ui.GameFrame;
 import com.checkmate.ui.LoginFrame;
 import javax.swing.*;
 import java.io.File;
+import java.util.Arrays;
 
 public class Main {
     public static GameFrame frame;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Headless tools are chosen by the first argument
+        if (args.length > 0 && args[0].equals("--perft")) {
+            Perft.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--search-bench")) {
+            SearchBench.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--uci")) {
+            Uci.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server-load")) {
+            ServerLoad.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--bitbases")) {
+            BitbaseMaker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--make-book")) {
+            BookMaker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--make-archive")) {
+            ArchiveMaker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--archive-bench")) {
+            ArchiveBench.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--epd")) {
+            EpdCheck.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--pgn-check")) {
+            PgnCheck.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // creating start menu form
         new LoginFrame();
     }
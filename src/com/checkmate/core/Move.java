@@ -7,7 +7,6 @@ package com.checkmate.core;
 import com.checkmate.pieces.*;
 
 public class Move {
-    public static int counter = 0; // Count the total number of the moves in the game
 
     // Instance variables to represent the old and new position of a piece after a
     // move.
@@ -18,22 +17,116 @@ public class Move {
     Piece capture; // Instance variable to represent the piece that was captured (if any) during
                    // the move.
 
+    int promotion; // Type of the piece a pawn reaching its last row is promoted to.
+
+    // Letters of the piece types, in the order of the type constants of Piece
+    static final String PIECE_LETTERS = "kqbnrp";
+
+    /**
+     * Constructor for creating a new Move object. A pawn reaching its last row
+     * with this move is promoted to a Queen.
+     *
+     * @param state     the game in which the move is being made
+     * @param piece     the piece making the move
+     * @param newColumn the new column position of the piece
+     * @param newRow    the new row position of the piece
+     */
+    public Move(GameState state, Piece piece, int newColumn, int newRow) {
+        this(state, piece, newColumn, newRow, Piece.QUEEN);
+    }
+
     /**
-     * Constructor for creating a new Move object.
+     * Constructor for creating a new Move object with an explicit promotion
+     * choice.
      *
-     * @param board     the board on which the move is being made
+     * @param state     the game in which the move is being made
      * @param piece     the piece making the move
      * @param newColumn the new column position of the piece
      * @param newRow    the new row position of the piece
+     * @param promotion the type of the piece a pawn reaching its last row is
+     *                  promoted to
      */
-    public Move(Board board, Piece piece, int newColumn, int newRow) {
+    public Move(GameState state, Piece piece, int newColumn, int newRow, int promotion) {
 
         this.oldColumn = piece.column;
         this.oldRow = piece.row;
         this.newColumn = newColumn;
         this.newRow = newRow;
         this.piece = piece;
-        this.capture = board.getPiece(newColumn, newRow);
+        this.capture = state.getPiece(newColumn, newRow);
+        this.promotion = promotion;
+    }
+
+    /**
+     * Constructor for creating a Move object from a move packed in an int, such
+     * as one returned by GameState.generateValidMoves.
+     *
+     * @param state the game in which the move is being made
+     * @param move  the packed move
+     */
+    public Move(GameState state, int move) {
+        this(state, state.getPiece(from(move) & 7, from(move) >>> 3), to(move) & 7, to(move) >>> 3,
+                promotion(move) == 0 ? Piece.QUEEN : promotion(move));
+    }
+
+    // A move can also be packed in an int, as the move generators of GameState
+    // do: bits 0-5 hold the square the piece leaves, bits 6-11 the square it
+    // reaches and bits 12-14 the promotion type, 0 when the move is not a
+    // promotion.
+
+    /**
+     * Packs a move in an int.
+     *
+     * @param from      the square index the piece leaves
+     * @param to        the square index the piece reaches
+     * @param promotion the promotion type, or 0
+     * @return the packed move
+     */
+    public static int encode(int from, int to, int promotion) {
+        return from | to << 6 | promotion << 12;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int promotion(int move) {
+        return move >>> 12;
     }
 
+    /**
+     * Finds a valid move by its coordinate notation. A promotion without a
+     * piece letter promotes to a Queen.
+     *
+     * @param state the game
+     * @param name  the move, such as "e2e4" or "a7a8q"
+     * @return the packed move, or 0 if no valid move has the name
+     */
+    public static int parse(GameState state, String name) {
+        int[] moves = new int[GameState.MAX_POSITION_MOVES];
+        int count = state.generateValidMoves(moves);
+        for (int i = 0; i < count; i++) {
+            String moveName = toString(moves[i]);
+            if (moveName.equals(name) || moveName.equals(name + "q"))
+                return moves[i];
+        }
+        return 0;
+    }
+
+    /**
+     * Writes a packed move in coordinate notation, such as "e2e4" or "a7a8q".
+     *
+     * @param move the packed move
+     * @return the move in coordinate notation
+     */
+    public static String toString(int move) {
+        String name = Bitboard.squareName(from(move)) + Bitboard.squareName(to(move));
+        if (promotion(move) != 0)
+            name += PIECE_LETTERS.charAt(promotion(move));
+        return name;
+    }
 }
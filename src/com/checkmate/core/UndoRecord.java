@@ -0,0 +1,44 @@
+/**
+ * The UndoRecord class holds what GameState.unmakeMove needs to take a move
+ * back. Records live in a stack owned by the GameState and are reused from one
+ * move to the next, so making and unmaking moves does not allocate.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+
+class UndoRecord {
+
+    // The piece that moved and the square it came from
+    Piece piece;
+    int fromColumn, fromRow;
+
+    // The move packed as in Move.encode, with the promotion type only when a
+    // pawn was promoted
+    int move;
+
+    // The piece that was captured, or null
+    Piece captured;
+
+    // The first-move flag of the moving piece before the move
+    boolean wasFirstMove;
+
+    // The piece a pawn was promoted to, or null. It is kept after the move is
+    // taken back so that a later promotion to the same piece can reuse it.
+    Piece promoted;
+    boolean isPromotion;
+
+    // The Rook moved by castling, its column before the move and its first-move
+    // flag, or null if the move was not castling
+    Piece rook;
+    int rookColumn;
+    boolean rookWasFirstMove;
+
+    // The castling rights, the halfmove clock, the Zobrist key and the
+    // evaluation before the move
+    int castlingRights;
+    int halfmoveClock;
+    long key;
+    int middlegame, endgame, phase;
+}
@@ -0,0 +1,65 @@
+/**
+ * The Zobrist class holds the random numbers used to give every position a
+ * 64-bit key. The key of a position is the exclusive or of the numbers of its
+ * pieces on their squares, of the side to move and of the castling rights, so
+ * it can be updated with a few operations when a move is made.
+ */
+
+package com.checkmate.core;
+
+import com.checkmate.pieces.Piece;
+import java.util.SplittableRandom;
+
+public class Zobrist {
+
+    // Numbers of every piece on every square, indexed by [color][piece type][square]
+    static final long[][][] PIECES = new long[2][6][64];
+
+    // Number added when black is to move
+    static final long BLACK_TO_MOVE;
+
+    // Numbers of every combination of castling rights
+    static final long[] CASTLING = new long[16];
+
+    static {
+        // A fixed seed keeps the keys the same from one run to the next
+        SplittableRandom random = new SplittableRandom(0x436865636B4D61L);
+        for (long[][] colorPieces : PIECES)
+            for (long[] squares : colorPieces)
+                for (int square = 0; square < 64; square++)
+                    squares[square] = random.nextLong();
+        BLACK_TO_MOVE = random.nextLong();
+        for (int rights = 0; rights < CASTLING.length; rights++)
+            CASTLING[rights] = random.nextLong();
+    }
+
+    /**
+     * Returns the number of a piece standing on a square.
+     *
+     * @param piece  the piece
+     * @param square the square index
+     * @return the random number of the piece on the square
+     */
+    static long piece(Piece piece, int square) {
+        return PIECES[Bitboard.color(piece.isWhite)][piece.type][square];
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     *
+     * @param bitboard       the pieces of the position
+     * @param isWhiteTurn    whether white is to move
+     * @param castlingRights the castling rights
+     * @return the key of the position
+     */
+    static long compute(Bitboard bitboard, boolean isWhiteTurn, int castlingRights) {
+        long key = 0;
+        for (long mask = bitboard.occupied; mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            key ^= piece(bitboard.squares[square], square);
+        }
+        if (!isWhiteTurn)
+            key ^= BLACK_TO_MOVE;
+        return key ^ CASTLING[castlingRights];
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * The Evaluator class scores a position for the computer opponent, in
+ * centipawns from the point of view of the player to move. The score is the
+ * tapered evaluation the game keeps up to date with every move, so a node of
+ * the search reads it instead of walking the pieces.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.GameState;
+
+public class Evaluator {
+
+    // Value of every piece type used to order captures, indexed by Piece.KING
+    // ... Piece.PAWN. The King is never taken, so it has no value.
+    public static final int[] VALUES = { 0, 900, 300, 300, 500, 100 };
+
+    /**
+     * Scores a position by the material and the squares of the pieces.
+     *
+     * @param state the game
+     * @return the score, positive when the player to move is ahead
+     */
+    public static int evaluate(GameState state) {
+        return state.evaluate();
+    }
+}
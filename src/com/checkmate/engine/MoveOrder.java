@@ -0,0 +1,135 @@
+/**
+ * The MoveOrder class sorts the moves of a node so that the search tries the
+ * likely best ones first, which makes alpha-beta cut off more of the tree. The
+ * move from the transposition table comes first, then captures by most
+ * valuable victim and least valuable attacker, then the killer moves that
+ * refuted a sibling node at the same ply, then the other moves by their
+ * history score: how often and how deep they caused a cutoff before.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.pieces.Piece;
+import java.util.Arrays;
+
+class MoveOrder {
+
+    // Bands of the move scores, from the move tried first
+    private static final int TABLE_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 24;
+    private static final int KILLER = 1 << 22;
+
+    // History scores are halved when one grows past this, keeping them below
+    // the killer band
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    // Two killer moves per ply, the newest first
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+
+    // History scores of the quiet moves, indexed by [from square][to square]
+    private final int[][] history = new int[64][64];
+
+    /**
+     * Scores the moves of a node for next.
+     *
+     * @param state     the game, at the node
+     * @param moves     the moves of the node
+     * @param scores    receives the score of every move
+     * @param count     the number of moves
+     * @param tableMove the move stored for the node in the transposition table,
+     *                  or 0
+     * @param ply       the ply of the node
+     */
+    void score(GameState state, int[] moves, int[] scores, int count, int tableMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == tableMove)
+                scores[i] = TABLE_MOVE;
+            else if (isCapture(state, move) || Move.promotion(move) == Piece.QUEEN)
+                scores[i] = CAPTURE + mvvLva(state, move);
+            else if (move == killers[ply][0])
+                scores[i] = KILLER + 1;
+            else if (move == killers[ply][1])
+                scores[i] = KILLER;
+            else
+                scores[i] = history[Move.from(move)][Move.to(move)];
+        }
+    }
+
+    /**
+     * Scores captures by most valuable victim and least valuable attacker.
+     *
+     * @param state the game, at the node
+     * @param move  the capture
+     * @return the score, higher for a better capture
+     */
+    static int mvvLva(GameState state, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece victim = state.getPiece(to & 7, to >>> 3);
+        Piece attacker = state.getPiece(from & 7, from >>> 3);
+        int victimValue = victim == null ? 0 : Evaluator.VALUES[victim.type];
+        int attackerValue = attacker.type == Piece.KING ? 1000 : Evaluator.VALUES[attacker.type];
+        if (Move.promotion(move) == Piece.QUEEN)
+            victimValue += Evaluator.VALUES[Piece.QUEEN];
+        return victimValue * 16 - attackerValue / 10;
+    }
+
+    static boolean isCapture(GameState state, int move) {
+        int to = Move.to(move);
+        return state.getPiece(to & 7, to >>> 3) != null;
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to an index, so a node only
+     * sorts as far as it searches.
+     *
+     * @param moves  the moves of the node
+     * @param scores the scores of the moves
+     * @param index  the index of the next move to search
+     * @param count  the number of moves
+     * @return the move now at the index
+     */
+    static int next(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++)
+            if (scores[i] > scores[best])
+                best = i;
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff.
+     *
+     * @param move  the move
+     * @param ply   the ply of the node
+     * @param depth the depth of the node
+     */
+    void cutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[Move.from(move)];
+        row[Move.to(move)] += depth * depth;
+        if (row[Move.to(move)] > HISTORY_LIMIT)
+            for (int[] scores : history)
+                for (int to = 0; to < 64; to++)
+                    scores[to] /= 2;
+    }
+
+    void clear() {
+        for (int[] slots : killers)
+            Arrays.fill(slots, 0);
+        for (int[] scores : history)
+            Arrays.fill(scores, 0);
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * The OpeningBook class plays the first moves of a game from a book file
+ * instead of searching them. The file has the layout of a Polyglot book: 16
+ * byte big-endian entries of a position key, a move, a weight and a learn
+ * field, sorted by key. The file is mapped read-only rather than read, so a
+ * large book costs no heap and the games of one JVM share its pages, and a
+ * lookup is a binary search on the key.
+ *
+ * The pieces of this game do not move as in orthodox chess, so books are keyed
+ * with the Zobrist key of GameState.positionKey and not with the Polyglot
+ * random numbers; books made for orthodox chess do not apply. BookMaker writes
+ * books in this layout.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.Bitboard;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.pieces.Piece;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+public class OpeningBook {
+
+    public static final int ENTRY_SIZE = 16;
+
+    // Promotion types of the Polyglot move field, from 1 (Knight) to 4 (Queen)
+    private static final int[] PROMOTIONS = { 0, Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN };
+
+    private final MappedByteBuffer buffer;
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.entries = buffer.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Maps a book file. The buffer is only read with absolute gets, so one book
+     * can be probed by many threads at once.
+     *
+     * @param file the book file
+     * @return the book
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new OpeningBook(buffer);
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Picks a book move of a position, at random with the weights of the
+     * entries. Entries whose move is not legal in the position, such as those
+     * of another position with the same key, are skipped.
+     *
+     * @param state  the game
+     * @param random the source of the choice
+     * @return the move packed as in Move.encode, or 0 if the book has no move
+     *         for the position
+     */
+    public int probe(GameState state, Random random) {
+        long key = state.positionKey();
+        int first = firstEntry(key);
+
+        int[] legal = new int[GameState.MAX_POSITION_MOVES];
+        int legalCount = state.generateValidMoves(legal);
+
+        int[] moves = new int[8];
+        int[] weights = new int[8];
+        int count = 0;
+        int total = 0;
+        for (int index = first; index < entries && keyAt(index) == key; index++) {
+            int weight = buffer.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+            int move = toMove(state, buffer.getShort(index * ENTRY_SIZE + 8) & 0xFFFF);
+            if (weight == 0 || !contains(legal, legalCount, move))
+                continue;
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, count * 2);
+                weights = Arrays.copyOf(weights, count * 2);
+            }
+            moves[count] = move;
+            weights[count++] = weight;
+            total += weight;
+        }
+        if (count == 0)
+            return 0;
+
+        int pick = random.nextInt(total);
+        for (int i = 0; i < count; i++) {
+            pick -= weights[i];
+            if (pick < 0)
+                return moves[i];
+        }
+        return moves[count - 1];
+    }
+
+    /**
+     * Picks a book move of a position, ready for Board.makeMove.
+     *
+     * @param state  the game
+     * @param random the source of the choice
+     * @return the move, or null if the book has no move for the position
+     */
+    public Move pick(GameState state, Random random) {
+        int move = probe(state, random);
+        return move == 0 ? null : new Move(state, move);
+    }
+
+    // Index of the first entry of a key, or of the first greater key; keys are
+    // sorted as unsigned numbers
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(index * ENTRY_SIZE);
+    }
+
+    /**
+     * Converts the move field of an entry. Polyglot counts ranks from white's
+     * side, with bits 0-2 the file and 3-5 the rank of the target, 6-11 the
+     * same for the origin and 12-14 the promotion, and writes castling as the
+     * King taking its own Rook.
+     *
+     * @param state the game, to recognize castling
+     * @param field the move field
+     * @return the move packed as in Move.encode
+     */
+    public static int toMove(GameState state, int field) {
+        int toColumn = field & 7;
+        int toRow = 7 - ((field >>> 3) & 7);
+        int fromColumn = (field >>> 6) & 7;
+        int fromRow = 7 - ((field >>> 9) & 7);
+        int promotion = PROMOTIONS[Math.min((field >>> 12) & 7, 4)];
+
+        Piece piece = state.getPiece(fromColumn, fromRow);
+        Piece target = state.getPiece(toColumn, toRow);
+        if (piece != null && piece.type == Piece.KING && target != null && target.type == Piece.ROOK
+                && target.isWhite == piece.isWhite && toRow == fromRow)
+            toColumn = toColumn > fromColumn ? 6 : 2;
+        return Move.encode(Bitboard.square(fromColumn, fromRow), Bitboard.square(toColumn, toRow), promotion);
+    }
+
+    /**
+     * Converts a packed move to the move field of an entry, the inverse of
+     * toMove.
+     *
+     * @param state the game, to recognize castling
+     * @param move  the move packed as in Move.encode
+     * @return the move field
+     */
+    public static int toField(GameState state, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int fromColumn = from & 7;
+        int fromRow = from >>> 3;
+        int toColumn = to & 7;
+        Piece piece = state.getPiece(fromColumn, fromRow);
+        if (piece != null && piece.type == Piece.KING && Math.abs(toColumn - fromColumn) == 2)
+            toColumn = toColumn > fromColumn ? 7 : 0;
+        int promotion = 0;
+        for (int i = 1; i < PROMOTIONS.length; i++)
+            if (PROMOTIONS[i] == Move.promotion(move))
+                promotion = i;
+        return toColumn | (7 - (to >>> 3)) << 3 | fromColumn << 6 | (7 - fromRow) << 9 | promotion << 12;
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++)
+            if (moves[i] == move)
+                return true;
+        return false;
+    }
+}
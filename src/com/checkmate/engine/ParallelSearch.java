@@ -0,0 +1,94 @@
+/**
+ * The ParallelSearch class runs a Lazy SMP search: several threads search the
+ * same position at once, each on its own copy of the game, and share one
+ * transposition table. The threads do not split the work between them; what
+ * one thread stores in the table cuts the search of the others short, and half
+ * of the helper threads search one half-move deeper so they run ahead of the
+ * main thread. The move of the main thread is played.
+ *
+ * With one thread the search runs on the calling thread alone, so a search with
+ * a depth or node budget gives the same result every time.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.GameState;
+import java.util.function.Consumer;
+
+public class ParallelSearch {
+
+    private final Search[] searches;
+
+    /**
+     * Creates a search of a position.
+     *
+     * @param state   the game to search
+     * @param table   the transposition table shared by the threads
+     * @param threads the number of threads, at least 1
+     */
+    public ParallelSearch(GameState state, TranspositionTable table, int threads) {
+        searches = new Search[Math.max(1, threads)];
+        for (int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(state, table);
+            searches[i].depthOffset = i % 2;
+        }
+    }
+
+    /**
+     * Searches the position until a limit is reached by the main thread. A
+     * stop asked for before the call is kept, as in Search.search, so the
+     * search can be stopped as soon as the thread running it is started.
+     *
+     * @param maxDepth   the deepest iteration, or 0 for no limit
+     * @param timeMillis the time budget in milliseconds, or 0 for no limit
+     * @param maxNodes   the node budget of the main thread, or 0 for no limit
+     * @return the result of the main thread, with the nodes of every thread
+     */
+    public SearchResult search(int maxDepth, long timeMillis, long maxNodes) {
+        Thread[] helpers = new Thread[searches.length - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = searches[i + 1];
+            helpers[i] = new Thread(() -> helper.iterate(maxDepth, timeMillis, 0), "search-helper-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+
+        SearchResult result = searches[0].iterate(maxDepth, timeMillis, maxNodes);
+
+        // The helpers are done once the main thread is
+        long nodes = result.nodes;
+        for (int i = 0; i < helpers.length; i++) {
+            searches[i + 1].stop();
+            try {
+                helpers[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            nodes += searches[i + 1].getNodes();
+        }
+        return new SearchResult(result.bestMove, result.score, result.depth, result.pv, nodes, result.millis,
+                result.cutoffs, result.firstMoveCutoffs);
+    }
+
+    /**
+     * Asks every thread of a running search to stop.
+     */
+    public void stop() {
+        for (Search search : searches)
+            search.stop();
+    }
+
+    /**
+     * Sets what is told the result of every iteration completed by the main
+     * thread, such as the info lines of the UCI protocol.
+     *
+     * @param listener the listener, or null
+     */
+    public void setListener(Consumer<SearchResult> listener) {
+        searches[0].listener = listener;
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+}
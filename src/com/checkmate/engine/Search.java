@@ -0,0 +1,258 @@
+/**
+ * The Search class finds the best move of a position for the computer
+ * opponent. It runs a negamax alpha-beta search, deepened one half-move at a
+ * time until the time or node budget runs out, and a capture-only quiescence
+ * search at the leaves so that exchanges are not cut in the middle. Moves come
+ * from GameState.generateValidMoves, so the search plays by the same rules as
+ * the board.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.GameState;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+
+    // Deepest half-move the search reaches, quiescence included
+    public static final int MAX_PLY = 64;
+
+    // Nodes searched between two looks at the clock
+    private static final int CHECK_INTERVAL = 256;
+
+    private final GameState state;
+    private final TranspositionTable table;
+
+    // Added to the depth of every iteration; Lazy SMP helper threads search one
+    // half-move deeper than the main thread so the threads spread out
+    int depthOffset;
+
+    // Move lists with their ordering scores and principal variations, one per ply
+    private final int[][] moves = new int[MAX_PLY + 1][GameState.MAX_POSITION_MOVES];
+    private final int[][] scores = new int[MAX_PLY + 1][GameState.MAX_POSITION_MOVES];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private final MoveOrder order = new MoveOrder();
+
+    // Beta cutoffs, and those caused by the first move searched; the closer the
+    // second is to the first, the better the moves are ordered
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    volatile boolean stopped;
+
+    // Told the result of every completed iteration, or null
+    Consumer<SearchResult> listener;
+
+    /**
+     * Creates a search of a position. The search works on its own copy of the
+     * game, so the game can be shown and played while it runs.
+     *
+     * @param state the game to search
+     */
+    public Search(GameState state) {
+        this(state, new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    /**
+     * Creates a search of a position that stores its results in a table, which
+     * may be kept from one move to the next or shared with other searches.
+     *
+     * @param state the game to search
+     * @param table the transposition table
+     */
+    public Search(GameState state, TranspositionTable table) {
+        this.state = state.copy();
+        this.table = table;
+    }
+
+    /**
+     * Asks a running search to stop. It returns the best move of the last
+     * completed depth.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Searches the position until a limit is reached. A stop asked for before
+     * the call is kept, so a search stopped before its thread got to run
+     * returns at once; each search is made for one move.
+     *
+     * @param maxDepth   the deepest iteration, or 0 for no limit
+     * @param timeMillis the time budget in milliseconds, or 0 for no limit
+     * @param maxNodes   the node budget, or 0 for no limit
+     * @return the result of the last completed iteration
+     */
+    public SearchResult search(int maxDepth, long timeMillis, long maxNodes) {
+        return iterate(maxDepth, timeMillis, maxNodes);
+    }
+
+    // Deepen the search one half-move at a time
+    SearchResult iterate(int maxDepth, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        this.deadline = timeMillis > 0 ? start + timeMillis * 1_000_000 : Long.MAX_VALUE;
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        if (maxDepth <= 0 || maxDepth > MAX_PLY)
+            maxDepth = MAX_PLY;
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        order.clear();
+
+        // Without a completed iteration the first valid move is played
+        int[] rootMoves = new int[GameState.MAX_POSITION_MOVES];
+        int rootCount = state.generateValidMoves(rootMoves);
+        if (rootCount == 0)
+            return new SearchResult(0, state.isInCheck() ? -MATE : 0, 0, new int[0], 0, 0, 0, 0);
+        SearchResult result = new SearchResult(rootMoves[0], 0, 0, new int[] { rootMoves[0] }, 0, 0, 0, 0);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = negamax(Math.min(depth + depthOffset, MAX_PLY), 0, -INFINITY, INFINITY);
+            if (stopped)
+                break;
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            result = new SearchResult(pv[0][0], score, depth, Arrays.copyOf(pv[0], pvLength[0]), nodes, millis,
+                    cutoffs, firstMoveCutoffs);
+            if (listener != null)
+                listener.accept(result);
+
+            // A found mate does not get better by searching deeper
+            if (result.isMate())
+                break;
+        }
+        return result;
+    }
+
+    // Search a node to a depth, returning its score for the player to move
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (depth <= 0 || ply >= MAX_PLY)
+            return quiescence(ply, alpha, beta);
+        if (outOfBudget())
+            return 0;
+
+        // A result of the position at least as deep may end the search of the
+        // node; the root is always searched to have a move to play
+        long key = state.positionKey();
+        long entry = table.probe(key);
+        if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha))
+                return score;
+        }
+
+        int[] list = moves[ply];
+        int count = state.generateValidMoves(list);
+        if (count == 0)
+            // Mated, or without a move while not in check
+            return state.isInCheck() ? -MATE + ply : 0;
+
+        int[] moveScores = scores[ply];
+        order.score(state, list, moveScores, count, entry != 0 ? TranspositionTable.move(entry) : 0, ply);
+
+        int originalAlpha = alpha;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            int move = MoveOrder.next(list, moveScores, i, count);
+            boolean isCapture = MoveOrder.isCapture(state, move);
+            state.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            state.unmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    cutoffs++;
+                    if (i == 0)
+                        firstMoveCutoffs++;
+                    if (!isCapture)
+                        order.cutoff(move, ply, depth);
+                    break;
+                }
+            }
+        }
+
+        int bound = alpha >= beta ? TranspositionTable.LOWER
+                : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, TranspositionTable.toTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    // Search the captures of a node until the position is quiet
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        if (outOfBudget())
+            return 0;
+
+        int standPat = Evaluator.evaluate(state);
+        if (ply >= MAX_PLY)
+            return standPat;
+        if (standPat >= beta)
+            return standPat;
+        if (standPat > alpha)
+            alpha = standPat;
+
+        // Keep the captures, best victims first
+        int[] list = moves[ply];
+        int[] moveScores = scores[ply];
+        int generated = state.generateValidMoves(list);
+        int count = 0;
+        for (int i = 0; i < generated; i++) {
+            if (MoveOrder.isCapture(state, list[i])) {
+                moveScores[count] = MoveOrder.mvvLva(state, list[i]);
+                list[count++] = list[i];
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int move = MoveOrder.next(list, moveScores, i, count);
+            state.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            state.unmakeMove();
+            if (stopped)
+                return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta)
+                    break;
+            }
+        }
+        return alpha;
+    }
+
+    // Make a move the head of the principal variation of a ply
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    // Count a node and stop the search once the budget is spent
+    private boolean outOfBudget() {
+        nodes++;
+        if (nodes >= maxNodes || (nodes % CHECK_INTERVAL == 0 && System.nanoTime() >= deadline))
+            stopped = true;
+        return stopped;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
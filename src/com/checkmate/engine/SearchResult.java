@@ -0,0 +1,93 @@
+/**
+ * The SearchResult class holds what a search found: the best move, its score,
+ * the principal variation (the line both players are expected to play) and
+ * the effort spent.
+ */
+
+package com.checkmate.engine;
+
+import com.checkmate.core.Move;
+
+public class SearchResult {
+
+    // The best move packed as in Move.encode, or 0 if the player has no move
+    public final int bestMove;
+
+    // The score of the best move in centipawns for the player to move
+    public final int score;
+
+    // The depth of the last completed iteration
+    public final int depth;
+
+    // The moves of the principal variation, starting with the best move
+    public final int[] pv;
+
+    public final long nodes;
+    public final long millis;
+
+    // Beta cutoffs of the search, and those caused by the first move tried
+    public final long cutoffs;
+    public final long firstMoveCutoffs;
+
+    public SearchResult(int bestMove, int score, int depth, int[] pv, long nodes, long millis, long cutoffs,
+            long firstMoveCutoffs) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.pv = pv;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the share of the beta cutoffs caused by the first move searched,
+     * a measure of the move ordering: with perfect ordering it is 1.
+     *
+     * @return the rate between 0 and 1, or 0 without cutoffs
+     */
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Checks if the score announces a mate.
+     *
+     * @return true if one of the players mates in the principal variation
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Counts the moves to the mate announced by the score.
+     *
+     * @return the moves until the player to move mates, negative when the
+     *         player to move is mated
+     */
+    public int mateIn() {
+        return score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2;
+    }
+
+    /**
+     * Writes the principal variation in coordinate notation, such as "e2e4 e7e5".
+     *
+     * @return the moves separated by spaces
+     */
+    public String pvString() {
+        StringBuilder builder = new StringBuilder();
+        for (int move : pv) {
+            if (builder.length() > 0)
+                builder.append(' ');
+            builder.append(Move.toString(move));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " time " + millis + " first-move cutoffs "
+                + String.format("%.1f%%", 100 * firstMoveCutoffRate()) + " pv " + pvString();
+    }
+}
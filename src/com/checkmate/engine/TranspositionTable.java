@@ -0,0 +1,136 @@
+/**
+ * The TranspositionTable class remembers the results of searched positions,
+ * indexed by their Zobrist key, so a position reached again by another order
+ * of moves is not searched twice. One table can be shared by several search
+ * threads without locks: every entry is stored as its data and its key xor its
+ * data, so an entry torn by two threads writing at once no longer matches its
+ * key and is ignored.
+ */
+
+package com.checkmate.engine;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    // Kinds of stored scores: exact, at least (the search failed high) or at
+    // most (the search failed low)
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    // Layout of the data of an entry: bits 0-14 the best move, 15-30 the score,
+    // 31-38 the depth, 39-40 the bound and bit 41 marks a used entry
+    private static final long USED = 1L << 41;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Creates a table.
+     *
+     * @param megabytes the size of the table, rounded down to a power of two
+     *                  number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1, (long) megabytes * 1024 * 1024 / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Stores the result of a search, unless a deeper result of the same
+     * position is already stored.
+     *
+     * @param key   the Zobrist key of the position
+     * @param move  the best move found, or 0
+     * @param score the score, already adjusted with toTable
+     * @param depth the depth searched
+     * @param bound EXACT, LOWER or UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long old = data[index];
+        if ((keys[index] ^ old) == key && depth(old) > depth && bound != EXACT)
+            return;
+        long entry = USED | (move & 0x7FFFL) | ((long) (score & 0xFFFF) << 15) | ((long) (depth & 0xFF) << 31)
+                | ((long) bound << 39);
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key the Zobrist key of the position
+     * @return the data of the entry, read with move, score, depth and bound, or
+     *         0 if the position is not stored
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) != key)
+            return 0;
+        return entry;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0x7FFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 15);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 31) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 39) & 3;
+    }
+
+    /**
+     * Adjusts a mate score to count the moves from the stored position rather
+     * than from the root, since the position can be reached at another ply.
+     *
+     * @param score the score found at a ply
+     * @param ply   the ply of the position
+     * @return the score to store
+     */
+    public static int toTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY)
+            return score + ply;
+        if (score <= -Search.MATE + Search.MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * Adjusts a stored mate score back to count from the root.
+     *
+     * @param score the stored score
+     * @param ply   the ply of the position
+     * @return the score at the ply
+     */
+    public static int fromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY)
+            return score - ply;
+        if (score <= -Search.MATE + Search.MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * Forgets every stored position.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+}
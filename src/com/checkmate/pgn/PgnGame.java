@@ -0,0 +1,52 @@
+/**
+ * The PgnGame class holds one game of a PGN file as it was read: its tags, its
+ * moves in SAN and its result. The moves are only checked when the game is
+ * replayed.
+ */
+
+package com.checkmate.pgn;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PgnGame {
+
+    // The tags, in the order they were read
+    public final Map<String, String> tags = new LinkedHashMap<>();
+
+    // The moves of the main line, in SAN
+    public final List<String> moves = new ArrayList<>();
+
+    // The result written after the moves: "1-0", "0-1", "1/2-1/2" or "*"
+    public String result = "*";
+
+    /**
+     * Plays the moves from the starting position of the game, the one of its
+     * FEN tag or else the standard one.
+     *
+     * @return the game after the last move
+     * @throws IllegalArgumentException if the FEN tag is not a position that
+     *                                  can arise in a game, as Fen.load checks,
+     *                                  or a move is not valid, with the number
+     *                                  of the move in the message
+     */
+    public GameState replay() {
+        GameState state = new GameState();
+        Fen.load(state, tags.getOrDefault("FEN", Fen.START_POSITION));
+        for (int ply = 0; ply < moves.size(); ply++) {
+            int move;
+            try {
+                move = San.parse(state, moves.get(ply));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Move " + (state.getMoveCounter() / 2 + 1)
+                        + (state.isWhiteTurn() ? ". " : "... ") + e.getMessage(), e);
+            }
+            state.makeMove(move);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * The PgnReader class reads the games of a PGN file one at a time, so a file
+ * of any size is streamed through a fixed buffer rather than loaded. Comments,
+ * variations, numeric annotations and escaped lines are skipped; only the tags,
+ * the moves of the main line and the result are kept.
+ */
+
+package com.checkmate.pgn;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class PgnReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Whether the next character starts a line, for the % escape
+    private boolean lineStart = true;
+
+    private final StringBuilder token = new StringBuilder();
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public PgnGame next() throws IOException {
+        skipSpace();
+        if (peek() < 0)
+            return null;
+
+        PgnGame game = new PgnGame();
+        while (peek() == '[') {
+            readTag(game);
+            skipSpace();
+        }
+
+        while (true) {
+            skipSpace();
+            int c = peek();
+            if (c < 0 || (c == '[' && !game.moves.isEmpty()))
+                return game;
+            if (c == '[') {
+                // A tag after tags and no moves belongs to this game
+                readTag(game);
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                read();
+                readWord();
+            } else if (c == '%' && lineStart) {
+                skipUntil('\n');
+            } else {
+                String word = readWord();
+                if (word.isEmpty()) {
+                    // A stray closing bracket or the like
+                    read();
+                    continue;
+                }
+                String move = stripNumber(word);
+                if (isResult(move)) {
+                    game.result = move;
+                    return game;
+                }
+                if (!move.isEmpty())
+                    game.moves.add(move);
+            }
+        }
+    }
+
+    // Read a tag such as [White "Tal, Mikhail"]
+    private void readTag(PgnGame game) throws IOException {
+        read();
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = peek()) >= 0 && c != '"' && c != ']' && c != '\n') {
+            read();
+            if (!Character.isWhitespace(c))
+                name.append((char) c);
+        }
+        StringBuilder value = new StringBuilder();
+        if (c == '"') {
+            read();
+            while ((c = read()) >= 0 && c != '"' && c != '\n') {
+                if (c == '\\' && (peek() == '"' || peek() == '\\'))
+                    c = read();
+                value.append((char) c);
+            }
+        }
+        while ((c = read()) >= 0 && c != ']' && c != '\n') {
+            // Skip to the end of the tag
+        }
+        game.tags.put(name.toString(), value.toString());
+    }
+
+    // Skip a variation, with the variations and comments inside it
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth == 0)
+                    return;
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            }
+        }
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        while ((c = read()) >= 0 && c != end) {
+            // Skip
+        }
+    }
+
+    private void skipSpace() throws IOException {
+        while (peek() >= 0 && Character.isWhitespace(peek()))
+            read();
+    }
+
+    // Read characters up to white space or a character that starts something
+    // else
+    private String readWord() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && "{}()[];$".indexOf(c) < 0)
+            token.append((char) read());
+        return token.toString();
+    }
+
+    // Remove a move number, such as "12." or "12...", from the front of a word
+    private static String stripNumber(String word) {
+        int i = 0;
+        while (i < word.length() && Character.isDigit(word.charAt(i)))
+            i++;
+        if (i == 0 || i == word.length() || word.charAt(i) != '.')
+            return word;
+        while (i < word.length() && word.charAt(i) == '.')
+            i++;
+        return word.substring(i);
+    }
+
+    private static boolean isResult(String word) {
+        return word.equals("1-0") || word.equals("0-1") || word.equals("1/2-1/2") || word.equals("*");
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        char c = buffer[position++];
+        lineStart = c == '\n';
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0)
+            return false;
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * The PgnWriter class writes games in PGN: the Seven Tag Roster and any other
+ * tags, then the moves in SAN with their numbers, wrapped at 80 columns, and
+ * the result.
+ */
+
+package com.checkmate.pgn;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+public class PgnWriter implements AutoCloseable {
+
+    // The tags every game has, in the order they are written
+    private static final String[] SEVEN_TAG_ROSTER = { "Event", "Site", "Date", "Round", "White", "Black", "Result" };
+
+    private static final int LINE_WIDTH = 80;
+
+    private final Writer out;
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes a game that was played on a GameState, from the moves it can take
+     * back. The game must have started from the standard position, or from the
+     * position of the FEN tag.
+     *
+     * @param state the game
+     * @param tags  the tags, such as the names of the players; the Result tag
+     *              is filled in from the position when missing
+     * @throws IOException if the game cannot be written
+     */
+    public void write(GameState state, Map<String, String> tags) throws IOException {
+        PgnGame game = new PgnGame();
+        game.tags.putAll(tags);
+
+        GameState replay = new GameState();
+        Fen.load(replay, tags.getOrDefault("FEN", Fen.START_POSITION));
+        for (int move : state.getMoves()) {
+            game.moves.add(San.format(replay, move));
+            replay.makeMove(move);
+        }
+        game.result = tags.containsKey("Result") ? tags.get("Result") : state.getResult().score;
+        write(game);
+    }
+
+    /**
+     * Writes a game.
+     *
+     * @param game the game
+     * @throws IOException if the game cannot be written
+     */
+    public void write(PgnGame game) throws IOException {
+        for (String name : SEVEN_TAG_ROSTER)
+            writeTag(name, name.equals("Result") ? game.result : game.tags.getOrDefault(name, "?"));
+        if (game.tags.containsKey("FEN") && !game.tags.containsKey("SetUp"))
+            writeTag("SetUp", "1");
+        for (Map.Entry<String, String> tag : game.tags.entrySet())
+            if (!isRosterTag(tag.getKey()))
+                writeTag(tag.getKey(), tag.getValue());
+        out.write('\n');
+
+        // The move number of the first move comes from the FEN tag
+        GameState start = new GameState();
+        Fen.load(start, game.tags.getOrDefault("FEN", Fen.START_POSITION));
+        int moveCounter = start.getMoveCounter();
+
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < game.moves.size(); i++, moveCounter++) {
+            if (moveCounter % 2 == 0)
+                append(line, (moveCounter / 2 + 1) + ". " + game.moves.get(i));
+            else if (i == 0)
+                append(line, (moveCounter / 2 + 1) + "... " + game.moves.get(i));
+            else
+                append(line, game.moves.get(i));
+        }
+        append(line, game.result);
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    // Add a word to the movetext, writing the line out when it is full
+    private void append(StringBuilder line, String word) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + word.length() > LINE_WIDTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0)
+            line.append(' ');
+        line.append(word);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[' + name + " \"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]\n");
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String roster : SEVEN_TAG_ROSTER)
+            if (roster.equals(name))
+                return true;
+        return false;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * The San class reads and writes moves in standard algebraic notation, such as
+ * "Nf3", "exd5", "O-O" or "e8=Q+", checked against the valid moves of a game.
+ * A pawn of this game also takes straight ahead; such a capture is written
+ * like a diagonal one, with the file it leaves, as "exe5".
+ */
+
+package com.checkmate.pgn;
+
+import com.checkmate.core.Bitboard;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.pieces.Piece;
+
+public class San {
+
+    // Letters of the piece types, in the order of the type constants of Piece
+    private static final String PIECE_LETTERS = "KQBNR";
+
+    /**
+     * Finds the valid move written in SAN. Check and annotation marks are
+     * ignored, and a promotion without a piece promotes to a Queen.
+     *
+     * @param state the game
+     * @param san   the move
+     * @return the move packed as in Move.encode
+     * @throws IllegalArgumentException if the text is not a move, or no valid
+     *                                  move or more than one matches it
+     */
+    public static int parse(GameState state, String san) {
+        int[] moves = new int[GameState.MAX_POSITION_MOVES];
+        int count = state.generateValidMoves(moves);
+
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0)
+            end--;
+        String text = san.substring(0, end);
+
+        if (text.equals("O-O") || text.equals("0-0") || text.equals("O-O-O") || text.equals("0-0-0"))
+            return castle(state, moves, count, text.length() == 3, san);
+
+        int promotion = 0;
+        int equals = text.indexOf('=');
+        if (equals >= 0) {
+            if (equals + 1 >= text.length())
+                throw new IllegalArgumentException("Bad promotion: " + san);
+            promotion = PIECE_LETTERS.indexOf(text.charAt(equals + 1));
+            if (promotion < Piece.QUEEN)
+                throw new IllegalArgumentException("Bad promotion: " + san);
+            text = text.substring(0, equals);
+        } else if (text.length() > 2 && Character.isLowerCase(text.charAt(0))
+                && PIECE_LETTERS.indexOf(text.charAt(text.length() - 1)) > 0) {
+            promotion = PIECE_LETTERS.indexOf(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.length() < 2)
+            throw new IllegalArgumentException("Not a move: " + san);
+        int to = Bitboard.parseSquare(text.substring(text.length() - 2));
+
+        String prefix = text.substring(0, text.length() - 2);
+        int type = Piece.PAWN;
+        if (!prefix.isEmpty() && PIECE_LETTERS.indexOf(prefix.charAt(0)) >= 0) {
+            type = PIECE_LETTERS.indexOf(prefix.charAt(0));
+            prefix = prefix.substring(1);
+        }
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c >= 'a' && c <= 'h')
+                fromColumn = c - 'a';
+            else if (c >= '1' && c <= '8')
+                fromRow = '8' - c;
+            else if (c != 'x' && c != '-')
+                throw new IllegalArgumentException("Not a move: " + san);
+        }
+
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Move.from(move);
+            if (Move.to(move) != to || state.getPiece(from & 7, from >>> 3).type != type)
+                continue;
+            if ((fromColumn >= 0 && (from & 7) != fromColumn) || (fromRow >= 0 && (from >>> 3) != fromRow))
+                continue;
+            if (Move.promotion(move) != 0 && Move.promotion(move) != (promotion == 0 ? Piece.QUEEN : promotion))
+                continue;
+            if (found != 0)
+                throw new IllegalArgumentException("Ambiguous move: " + san);
+            found = move;
+        }
+        if (found == 0)
+            throw new IllegalArgumentException("Illegal move: " + san);
+        return found;
+    }
+
+    /**
+     * Finds the valid move written in SAN, ready for Board.makeMove.
+     *
+     * @param state the game
+     * @param san   the move
+     * @return the move
+     * @throws IllegalArgumentException as parse
+     */
+    public static Move parseMove(GameState state, String san) {
+        return new Move(state, parse(state, san));
+    }
+
+    /**
+     * Writes a valid move in SAN, with the file or row of the piece when
+     * another piece of its type could reach the same square, and a check or
+     * mate mark. The game is left as it was.
+     *
+     * @param state the game, before the move
+     * @param move  the move packed as in Move.encode
+     * @return the move in SAN
+     */
+    public static String format(GameState state, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = state.getPiece(from & 7, from >>> 3);
+        boolean capture = state.getPiece(to & 7, to >>> 3) != null;
+        StringBuilder san = new StringBuilder();
+
+        if (piece.type == Piece.KING && Math.abs((to & 7) - (from & 7)) == 2) {
+            san.append((to & 7) > (from & 7) ? "O-O" : "O-O-O");
+        } else if (piece.type == Piece.PAWN) {
+            if (capture)
+                san.append((char) ('a' + (from & 7))).append('x');
+            san.append(Bitboard.squareName(to));
+            if (Move.promotion(move) != 0)
+                san.append('=').append(PIECE_LETTERS.charAt(Move.promotion(move)));
+        } else {
+            san.append(PIECE_LETTERS.charAt(piece.type));
+            int[] moves = new int[GameState.MAX_POSITION_MOVES];
+            int count = state.generateValidMoves(moves);
+            boolean ambiguous = false, sameColumn = false, sameRow = false;
+            for (int i = 0; i < count; i++) {
+                int other = Move.from(moves[i]);
+                if (other == from || Move.to(moves[i]) != to
+                        || state.getPiece(other & 7, other >>> 3).type != piece.type)
+                    continue;
+                ambiguous = true;
+                sameColumn |= (other & 7) == (from & 7);
+                sameRow |= (other >>> 3) == (from >>> 3);
+            }
+            if (ambiguous) {
+                if (!sameColumn)
+                    san.append((char) ('a' + (from & 7)));
+                else if (!sameRow)
+                    san.append((char) ('8' - (from >>> 3)));
+                else
+                    san.append(Bitboard.squareName(from));
+            }
+            if (capture)
+                san.append('x');
+            san.append(Bitboard.squareName(to));
+        }
+
+        state.makeMove(move);
+        if (state.isInCheck())
+            san.append(state.generateValidMoves(new int[GameState.MAX_POSITION_MOVES]) == 0 ? '#' : '+');
+        state.unmakeMove();
+        return san.toString();
+    }
+
+    private static int castle(GameState state, int[] moves, int count, boolean kingSide, String san) {
+        for (int i = 0; i < count; i++) {
+            int from = Move.from(moves[i]);
+            int to = Move.to(moves[i]);
+            if (state.getPiece(from & 7, from >>> 3).type == Piece.KING
+                    && (to & 7) - (from & 7) == (kingSide ? 2 : -2))
+                return moves[i];
+        }
+        throw new IllegalArgumentException("Illegal move: " + san);
+    }
+}
@@ -5,8 +5,7 @@ It extends the Piece class and inherits its properties and methods.
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import java.awt.image.BufferedImage;
+import com.checkmate.core.GameState;
 
 /**
  * This class represents a Bishop chess piece and extends the Piece class
@@ -16,25 +15,19 @@ public class Bishop extends Piece {
     /**
      * Constructor for the Bishop class
      *
-     * @param board   The Board on which the Bishop will be placed
+     * @param state   The game in which the Bishop will be placed
      * @param column  The column index of the Bishop's position on the board
      * @param row     The row index of the Bishop's position on the board
      * @param isWhite A boolean representing whether the Bishop is white or black
      */
-    public Bishop(Board board, int column, int row, boolean isWhite) {
-        super(board);
+    public Bishop(GameState state, int column, int row, boolean isWhite) {
+        super(state);
         this.column = column;
         this.row = row;
-        this.xPos = column * board.tileSize;
-        this.yPos = row * board.tileSize;
         this.isWhite = isWhite;
         this.name = "Bishop";
+        this.type = BISHOP;
         this.isFirstMove = true;
-
-        // Get the Bishop's sprite from the sprite sheet and scale it to the appropriate
-        // size
-        this.sprite = sheet.getSubimage(pieceWidth * 2, isWhite ? 0 : pieceHeight, pieceWidth, pieceHeight)
-                .getScaledInstance(board.tileSize - 1, board.tileSize - 1, BufferedImage.SCALE_SMOOTH);
     }
 
     // Set valid moves of Bishop
@@ -45,8 +38,8 @@ public class Bishop extends Piece {
         rowMove = Math.abs(row - this.row);
 
         // Check clearance of the path for Bishop to change it's color
-        boolean rightClear = board.getPiece(this.column + 1, this.row) == null;
-        boolean leftClear = board.getPiece(this.column - 1, this.row) == null;
+        boolean rightClear = state.getPiece(this.column + 1, this.row) == null;
+        boolean leftClear = state.getPiece(this.column - 1, this.row) == null;
 
         if (rightClear && leftClear) {
             return (columnMove <= 3 && rowMove <= 3 && columnMove == rowMove) || (columnMove == 1 && rowMove == 0);
@@ -61,4 +54,19 @@ public class Bishop extends Piece {
         }
     }
 
+    // Add the diagonal jumps of up to three tiles, and the side steps to free tiles
+    @Override
+    public int generateMoves(int[] moves, int count) {
+        for (int d = 1; d <= 3; d++) {
+            count = addMove(moves, count, this.column + d, this.row + d);
+            count = addMove(moves, count, this.column + d, this.row - d);
+            count = addMove(moves, count, this.column - d, this.row + d);
+            count = addMove(moves, count, this.column - d, this.row - d);
+        }
+        if (state.getPiece(this.column + 1, this.row) == null)
+            count = addMove(moves, count, this.column + 1, this.row);
+        if (state.getPiece(this.column - 1, this.row) == null)
+            count = addMove(moves, count, this.column - 1, this.row);
+        return count;
+    }
 }
@@ -5,30 +5,25 @@ It extends the Piece class and inherits its properties and methods.
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import java.awt.image.BufferedImage;
+import com.checkmate.core.GameState;
 
 public class Knight extends Piece {
     /**
      * Constructor for the Knight class
      *
-     * @param board   The Board on which the Knight will be placed
+     * @param state   The game in which the Knight will be placed
      * @param column  The column index of the Knight's position on the board
      * @param row     The row index of the Knight's position on the board
      * @param isWhite A boolean representing whether the Knight is white or black
      */
-    public Knight(Board board, int column, int row, boolean isWhite) {
-        super(board);
+    public Knight(GameState state, int column, int row, boolean isWhite) {
+        super(state);
         this.column = column;
         this.row = row;
-        this.xPos = column * board.tileSize;
-        this.yPos = row * board.tileSize;
         this.isWhite = isWhite;
         this.name = "Knight";
+        this.type = KNIGHT;
         this.isFirstMove = true;
-
-        this.sprite = sheet.getSubimage(pieceWidth * 3, isWhite ? 0 : pieceHeight, pieceWidth, pieceHeight)
-                .getScaledInstance(board.tileSize, board.tileSize, BufferedImage.SCALE_SMOOTH);
     }
 
     // Set the valid move of the Knight
@@ -39,4 +34,16 @@ public class Knight extends Piece {
 
         return columnMove * rowMove == 6 && columnMove > 1 && rowMove > 1;
     }
+
+    // Leaps of the Knight, two tiles one way and three the other
+    private static final int[][] LEAPS = { { 2, 3 }, { 3, 2 }, { -2, 3 }, { -3, 2 }, { 2, -3 }, { 3, -2 },
+            { -2, -3 }, { -3, -2 } };
+
+    // Add the squares reached by the leaps of the Knight
+    @Override
+    public int generateMoves(int[] moves, int count) {
+        for (int[] leap : LEAPS)
+            count = addMove(moves, count, this.column + leap[0], this.row + leap[1]);
+        return count;
+    }
 }
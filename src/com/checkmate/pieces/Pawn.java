@@ -5,8 +5,7 @@ It extends the Piece class and inherits its properties and methods.
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import java.awt.image.BufferedImage;
+import com.checkmate.core.GameState;
 import java.util.List;
 
 import javax.swing.JOptionPane;
@@ -19,27 +18,20 @@ public class Pawn extends Piece {
     /**
      * Constructor for the Pawn class
      *
-     * @param board   The Board on which the Pawn will be placed
+     * @param state   The game in which the Pawn will be placed
      * @param column  The column index of the Pawn's position on the board
      * @param row     The row index of the Pawn's position on the board
      * @param isWhite A boolean representing whether the Pawn is white or black
      */
-    public Pawn(Board board, int column, int row, boolean isWhite) {
-        super(board);
-        this.board = board;
+    public Pawn(GameState state, int column, int row, boolean isWhite) {
+        super(state);
         this.column = column;
         this.row = row;
-        this.xPos = column * board.tileSize;
-        this.yPos = row * board.tileSize;
         this.isWhite = isWhite;
         this.name = "Pawn";
+        this.type = PAWN;
         this.isFirstMove = true;
         this.rowEnd = isWhite ? 0 : 7;
-
-        // The sprite for the pawn piece is retrieved from a larger image file
-        // and scaled down to the size of a single tile on the board.
-        this.sprite = sheet.getSubimage(pieceWidth * 5, isWhite ? 0 : pieceHeight, pieceWidth, pieceHeight)
-                .getScaledInstance(board.tileSize, board.tileSize, BufferedImage.SCALE_SMOOTH);
     }
 
     // Set valid moves of Pawn
@@ -61,16 +53,16 @@ public class Pawn extends Piece {
         rowMove = (this.row - row) * moveDirection;
 
         // Way in front direction by one step
-        isNorthOccupied = board.getPiece(this.column, this.row - moveDirection) != null;
+        isNorthOccupied = state.getPiece(this.column, this.row - moveDirection) != null;
 
         // Way in front direction by two steps
-        isFarNorthOccupied = board.getPiece(this.column, this.row - 2 * moveDirection) != null;
+        isFarNorthOccupied = state.getPiece(this.column, this.row - 2 * moveDirection) != null;
 
         // Way in Front Right direction
-        isNorthEastOccupied = board.getPiece(this.column + moveDirection, this.row - moveDirection) != null;
+        isNorthEastOccupied = state.getPiece(this.column + moveDirection, this.row - moveDirection) != null;
 
         // Way in Front Left direction
-        isNorthWestOccupied = board.getPiece(this.column - moveDirection, this.row - moveDirection) != null;
+        isNorthWestOccupied = state.getPiece(this.column - moveDirection, this.row - moveDirection) != null;
 
         // First move of pawn can be one or two tiles in column direction
         if (isFirstMove) {
@@ -114,4 +106,23 @@ public class Pawn extends Piece {
             }
         }
     }
+
+    // Add the step forward, the double step on the first move, and the diagonal
+    // steps onto occupied tiles
+    @Override
+    public int generateMoves(int[] moves, int count) {
+        // Move Direction in white pieces is inverse to black pieces
+        int moveDirection = isWhite ? 1 : -1;
+        int nextRow = this.row - moveDirection;
+
+        count = addMove(moves, count, this.column, nextRow);
+        if (isFirstMove && state.getPiece(this.column, nextRow) == null
+                && state.getPiece(this.column, nextRow - moveDirection) == null)
+            count = addMove(moves, count, this.column, nextRow - moveDirection);
+        if (state.getPiece(this.column + 1, nextRow) != null)
+            count = addMove(moves, count, this.column + 1, nextRow);
+        if (state.getPiece(this.column - 1, nextRow) != null)
+            count = addMove(moves, count, this.column - 1, nextRow);
+        return count;
+    }
 }
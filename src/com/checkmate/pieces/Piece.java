@@ -5,11 +5,9 @@
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import javax.imageio.ImageIO;
+import com.checkmate.core.GameState;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Objects;
 
@@ -18,50 +16,38 @@ public class Piece {
 
     // piece attributes
     public int column, row;
-    public int xPos, yPos;
     public boolean isWhite;
     public boolean isFirstMove;
     public int rowEnd;
     public String name;
+    public int type;
+
+    // Piece types, in the order of the columns of the sprite sheet
+    public static final int KING = 0;
+    public static final int QUEEN = 1;
+    public static final int BISHOP = 2;
+    public static final int KNIGHT = 3;
+    public static final int ROOK = 4;
+    public static final int PAWN = 5;
+
+    // Largest number of target squares generateMoves can add for one piece
+    public static final int MAX_MOVES = 28;
 
     // public int value;
 
     // Movements of Piece in columns & rows
     int columnMove, rowMove;
 
-    BufferedImage sheet;
-
-    Image sprite;
-    Board board;
-
-    // Load sprite sheet for the pieces
-    {
-        try {
-            java.net.URL url = getClass().getResource("/images/Pieces/pieces.png");
-            if (url == null) {
-                System.err.println("Error: Could not find resource '/images/Pieces/pieces.png'");
-                System.err.println("Classpath: " + System.getProperty("java.class.path"));
-            } else {
-                System.out.println("Found resource at: " + url);
-                sheet = ImageIO.read(url);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    // Define dimensions of each piece on the sprite sheet
-    protected int pieceWidth = sheet.getWidth() / 6;
-    protected int pieceHeight = sheet.getHeight() / 2;
+    GameState state;
 
     /**
-     * Constructor for creating a new Piece object and initializing the Board
+     * Constructor for creating a new Piece object and initializing the GameState
      * object.
      *
-     * @param board The board object where the Piece is to be placed.
+     * @param state The game where the Piece is to be placed.
      */
-    public Piece(Board board) {
-        this.board = board;
+    public Piece(GameState state) {
+        this.state = state;
     }
 
     // public Piece(int x, int y, Player player, String string, Block block) {
@@ -71,10 +57,14 @@ public class Piece {
     /**
      * Method to draw the Piece on the board.
      *
-     * @param g2d The graphics object used to draw the Piece.
+     * @param g2d      The graphics object used to draw the Piece.
+     * @param tileSize The size of a tile of the board in pixels.
      */
-    public void paint(Graphics2D g2d) {
-        g2d.drawImage(sprite, xPos, yPos, null);
+    public void paint(Graphics2D g2d, int tileSize) {
+        // The images are shared by every piece of the process
+        BufferedImage sprite = SpriteAtlas.sprite(type, isWhite, tileSize);
+        if (sprite != null)
+            g2d.drawImage(sprite, column * tileSize, row * tileSize, null);
     }
 
     // Create The two following methods to override on it in every piece's class
@@ -103,6 +93,68 @@ public class Piece {
         return false;
     }
 
+    /**
+     * Adds the squares this Piece can reach with its own movement rules to a
+     * sink, as square indexes (row * 8 + column). Squares held by a Piece of the
+     * same color are left out; whether the move leaves the King in check is not
+     * tested. Subclasses override this to visit only the squares their movement
+     * can reach instead of the whole board.
+     *
+     * @param moves The sink, with room for MAX_MOVES more squares.
+     * @param count The number of squares already in the sink.
+     * @return the number of squares in the sink after this Piece's moves.
+     */
+    public int generateMoves(int[] moves, int count) {
+        for (int r = 0; r < 8; r++)
+            for (int c = 0; c < 8; c++)
+                if (isValidMovement(c, r) && !moveHitsPiece(c, r))
+                    count = addMove(moves, count, c, r);
+        return count;
+    }
+
+    /**
+     * Adds a target square to a move sink unless it is off the board or held by
+     * a Piece of the same color.
+     *
+     * @param moves  The sink of square indexes.
+     * @param count  The number of squares already in the sink.
+     * @param column The column of the target square.
+     * @param row    The row of the target square.
+     * @return the number of squares in the sink.
+     */
+    int addMove(int[] moves, int count, int column, int row) {
+        if (column < 0 || column > 7 || row < 0 || row > 7)
+            return count;
+        Piece piece = state.getPiece(column, row);
+        if (piece != null && piece.isWhite == this.isWhite)
+            return count;
+        moves[count] = row * 8 + column;
+        return count + 1;
+    }
+
+    /**
+     * Adds the squares of a sliding ray to a move sink, up to and including the
+     * first Piece met on the way if it belongs to the opponent.
+     *
+     * @param moves           The sink of square indexes.
+     * @param count           The number of squares already in the sink.
+     * @param columnDirection The column step of the ray.
+     * @param rowDirection    The row step of the ray.
+     * @return the number of squares in the sink.
+     */
+    int addRay(int[] moves, int count, int columnDirection, int rowDirection) {
+        int c = column + columnDirection;
+        int r = row + rowDirection;
+        while (c >= 0 && c < 8 && r >= 0 && r < 8) {
+            count = addMove(moves, count, c, r);
+            if (state.getPiece(c, r) != null)
+                break;
+            c += columnDirection;
+            r += rowDirection;
+        }
+        return count;
+    }
+
     /**
      * Checks if a Piece object can attack another Piece object at a given location.
      *
@@ -112,7 +164,7 @@ public class Piece {
      */
     public boolean canAttack(int column, int row) {
         // Check if the given location is occupied by a Piece of the opposite color
-        Piece piece = board.getPiece(column, row);
+        Piece piece = state.getPiece(column, row);
         if (piece != null && piece.isWhite != this.isWhite) {
             // Check if the Piece can move to the given location
             return isValidMovement(column, row);
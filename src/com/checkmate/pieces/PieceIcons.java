@@ -0,0 +1,77 @@
+/**
+ * The PieceIcons class caches the icons of the pieces shown outside the board,
+ * in the panels of taken pieces and in the promotion dialog, by color, piece
+ * type and size. Each icon is made once from the image of the piece in
+ * /images/Pieces/<color>/<name>.png, or else cut from the sprite sheet through
+ * the SpriteAtlas the board draws with.
+ */
+
+package com.checkmate.pieces;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PieceIcons {
+
+    // Names of the image files, in the order of the piece types
+    private static final String[] NAMES = { "king", "queen", "bishop", "knight", "rook", "pawn" };
+
+    // The icons, keyed by size * 12 + color * 6 + type
+    private static final Map<Integer, ImageIcon> ICONS = new ConcurrentHashMap<>();
+
+    // The decoded image files, indexed by color * 6 + type; a missing file is
+    // kept as MISSING so it is looked for only once
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    private static final BufferedImage[] FILES = new BufferedImage[12];
+
+    private PieceIcons() {
+    }
+
+    /**
+     * Returns the icon of a piece.
+     *
+     * @param type    the piece type, such as Piece.QUEEN
+     * @param isWhite the color of the piece
+     * @param size    the width and height of the icon in pixels
+     * @return the icon, or null if no image of the piece could be read
+     */
+    public static ImageIcon icon(int type, boolean isWhite, int size) {
+        int key = size * 12 + (isWhite ? 0 : 6) + type;
+        ImageIcon icon = ICONS.get(key);
+        if (icon == null) {
+            BufferedImage file = file(type, isWhite);
+            BufferedImage image = file != MISSING ? SpriteAtlas.scale(file, size)
+                    : SpriteAtlas.sprite(type, isWhite, size);
+            if (image == null)
+                return null;
+            icon = new ImageIcon(image);
+            ICONS.putIfAbsent(key, icon);
+        }
+        return icon;
+    }
+
+    // Read the image file of a piece the first time it is needed
+    private static synchronized BufferedImage file(int type, boolean isWhite) {
+        int index = (isWhite ? 0 : 6) + type;
+        if (FILES[index] == null) {
+            FILES[index] = MISSING;
+            URL url = PieceIcons.class.getResource(
+                    "/images/Pieces/" + (isWhite ? "white" : "black") + "/" + NAMES[type] + ".png");
+            if (url != null) {
+                try {
+                    BufferedImage image = ImageIO.read(url);
+                    if (image != null)
+                        FILES[index] = image;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return FILES[index];
+    }
+}
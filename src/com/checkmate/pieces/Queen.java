@@ -5,30 +5,25 @@ It extends the Piece class and inherits its properties and methods.
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import java.awt.image.BufferedImage;
+import com.checkmate.core.GameState;
 
 public class Queen extends Piece {
     /**
      * Constructor for the Queen class
      *
-     * @param board   The Board on which the Queen will be placed
+     * @param state   The game in which the Queen will be placed
      * @param column  The column index of the Queen's position on the board
      * @param row     The row index of the Queen's position on the board
      * @param isWhite A boolean representing whether the Queen is white or black
      */
-    public Queen(Board board, int column, int row, boolean isWhite) {
-        super(board);
+    public Queen(GameState state, int column, int row, boolean isWhite) {
+        super(state);
         this.column = column;
         this.row = row;
-        this.xPos = column * board.tileSize;
-        this.yPos = row * board.tileSize;
         this.isWhite = isWhite;
         this.name = "Queen";
+        this.type = QUEEN;
         this.isFirstMove = true;
-
-        this.sprite = sheet.getSubimage(pieceWidth, isWhite ? 0 : pieceHeight, pieceWidth, pieceHeight)
-                .getScaledInstance(board.tileSize - 1, board.tileSize - 1, BufferedImage.SCALE_SMOOTH);
     }
 
     // Set valid moves of Queen
@@ -50,7 +45,7 @@ public class Queen extends Piece {
             // Moving Left
             if (columnMove < 0) {
                 for (int c = this.column - 1; c > column; c--) {
-                    if (board.getPiece(c, this.row) != null) {
+                    if (state.getPiece(c, this.row) != null) {
                         return true;
                     }
                 }
@@ -59,7 +54,7 @@ public class Queen extends Piece {
             // Moving Right
             if (columnMove > 0) {
                 for (int c = this.column + 1; c < column; c++) {
-                    if (board.getPiece(c, this.row) != null) {
+                    if (state.getPiece(c, this.row) != null) {
                         return true;
                     }
                 }
@@ -68,7 +63,7 @@ public class Queen extends Piece {
             // Moving Up
             if (rowMove < 0) {
                 for (int r = this.row - 1; r > row; r--) {
-                    if (board.getPiece(this.column, r) != null) {
+                    if (state.getPiece(this.column, r) != null) {
                         return true;
                     }
                 }
@@ -76,7 +71,7 @@ public class Queen extends Piece {
             // Moving Down
             if (rowMove > 0) {
                 for (int r = this.row + 1; r < row; r++) {
-                    if (board.getPiece(this.column, r) != null) {
+                    if (state.getPiece(this.column, r) != null) {
                         return true;
                     }
                 }
@@ -85,7 +80,7 @@ public class Queen extends Piece {
             // Moving Up Left
             if (columnMove < 0 && rowMove < 0) {
                 for (int d = 1; d < Math.abs(this.column - column); d++) {
-                    if (board.getPiece(this.column - d, this.row - d) != null) {
+                    if (state.getPiece(this.column - d, this.row - d) != null) {
                         return true;
                     }
                 }
@@ -93,7 +88,7 @@ public class Queen extends Piece {
             // Moving Up Right
             if (columnMove > 0 && rowMove < 0) {
                 for (int d = 1; d < Math.abs(this.column - column); d++) {
-                    if (board.getPiece(this.column + d, this.row - d) != null) {
+                    if (state.getPiece(this.column + d, this.row - d) != null) {
                         return true;
                     }
                 }
@@ -101,7 +96,7 @@ public class Queen extends Piece {
             // Moving Down Left
             if (columnMove < 0 && rowMove > 0) {
                 for (int d = 1; d < Math.abs(this.column - column); d++) {
-                    if (board.getPiece(this.column - d, this.row + d) != null) {
+                    if (state.getPiece(this.column - d, this.row + d) != null) {
                         return true;
                     }
                 }
@@ -109,7 +104,7 @@ public class Queen extends Piece {
             // Moving Down Right
             if (columnMove > 0 && rowMove > 0) {
                 for (int d = 1; d < Math.abs(this.column - column); d++) {
-                    if (board.getPiece(this.column + d, this.row + d) != null) {
+                    if (state.getPiece(this.column + d, this.row + d) != null) {
                         return true;
                     }
                 }
@@ -120,4 +115,14 @@ public class Queen extends Piece {
         return false;
 
     }
+
+    // Add the tiles of the straight and diagonal lines, stopping at the first piece
+    @Override
+    public int generateMoves(int[] moves, int count) {
+        for (int c = -1; c <= 1; c++)
+            for (int r = -1; r <= 1; r++)
+                if (c != 0 || r != 0)
+                    count = addRay(moves, count, c, r);
+        return count;
+    }
 }
@@ -5,32 +5,26 @@ It extends the Piece class and inherits its properties and methods.
 
 package com.checkmate.pieces;
 
-import com.checkmate.core.Board;
-import java.awt.image.BufferedImage;
+import com.checkmate.core.GameState;
 
 public class Rook extends Piece {
 
     /**
      * Constructor for the Rook class
      *
-     * @param board   The Board on which the Rook will be placed
+     * @param state   The game in which the Rook will be placed
      * @param column  The column index of the Rook's position on the board
      * @param row     The row index of the Rook's position on the board
      * @param isWhite A boolean representing whether the Rook is white or black
      */
-    public Rook(Board board, int column, int row, boolean isWhite) {
-        super(board);
+    public Rook(GameState state, int column, int row, boolean isWhite) {
+        super(state);
         this.column = column;
         this.row = row;
-        this.xPos = column * board.tileSize;
-        this.yPos = row * board.tileSize;
         this.isWhite = isWhite;
         this.name = "Rook";
+        this.type = ROOK;
         this.isFirstMove = true;
-
-        this.sprite = sheet.getSubimage(pieceWidth * 4, isWhite ? 0 : pieceHeight, pieceWidth, pieceHeight)
-                .getScaledInstance(board.tileSize - 1, board.tileSize - 1, BufferedImage.SCALE_SMOOTH);
-
     }
 
     // Set valid moves of Rook
@@ -53,7 +47,7 @@ public class Rook extends Piece {
         // Moving Left
         if (columnMove < 0) {
             for (int c = this.column - 1; c > column; c--) {
-                if (board.getPiece(c, this.row) != null) {
+                if (state.getPiece(c, this.row) != null) {
                     return true;
                 }
             }
@@ -62,7 +56,7 @@ public class Rook extends Piece {
         // Moving Right
         if (columnMove > 0) {
             for (int c = this.column + 1; c < column; c++) {
-                if (board.getPiece(c, this.row) != null) {
+                if (state.getPiece(c, this.row) != null) {
                     return true;
                 }
             }
@@ -71,7 +65,7 @@ public class Rook extends Piece {
         // Moving Up
         if (rowMove < 0) {
             for (int r = this.row - 1; r > row; r--) {
-                if (board.getPiece(this.column, r) != null) {
+                if (state.getPiece(this.column, r) != null) {
                     return true;
                 }
             }
@@ -80,7 +74,7 @@ public class Rook extends Piece {
         // Moving Down
         if (rowMove > 0) {
             for (int r = this.row + 1; r < row; r++) {
-                if (board.getPiece(this.column, r) != null) {
+                if (state.getPiece(this.column, r) != null) {
                     return true;
                 }
             }
@@ -88,4 +82,14 @@ public class Rook extends Piece {
 
         return false;
     }
+
+    // Add the tiles of the four straight lines, stopping at the first piece
+    @Override
+    public int generateMoves(int[] moves, int count) {
+        count = addRay(moves, count, 1, 0);
+        count = addRay(moves, count, -1, 0);
+        count = addRay(moves, count, 0, 1);
+        count = addRay(moves, count, 0, -1);
+        return count;
+    }
 }
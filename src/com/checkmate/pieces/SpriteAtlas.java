@@ -0,0 +1,111 @@
+/**
+ * The SpriteAtlas class holds the images of the pieces for the whole process.
+ * The sprite sheet is decoded once, the first time a piece is drawn, and cut
+ * into the 12 piece images; for each size asked for, the images are scaled
+ * once into images of the same layout as the screen, so drawing a piece is a
+ * plain copy. Nothing is loaded in games that are never shown, and without a
+ * display plain ARGB images are made instead.
+ */
+
+package com.checkmate.pieces;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SpriteAtlas {
+
+    public static final String SHEET = "/images/Pieces/pieces.png";
+
+    // The scaled images of each size, indexed by color (white first) and type
+    private static final Map<Integer, BufferedImage[]> SPRITES = new ConcurrentHashMap<>();
+
+    // The sprite sheet, decoded by the first class to ask for it
+    private static class Sheet {
+        static final BufferedImage IMAGE = load();
+    }
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Returns the image of a piece.
+     *
+     * @param type    the piece type, such as Piece.KING
+     * @param isWhite the color of the piece
+     * @param size    the width and height of the image in pixels
+     * @return the image, or null if the sprite sheet could not be read
+     */
+    public static BufferedImage sprite(int type, boolean isWhite, int size) {
+        if (Sheet.IMAGE == null || size <= 0)
+            return null;
+        BufferedImage[] sprites = SPRITES.computeIfAbsent(size, SpriteAtlas::slice);
+        return sprites[(isWhite ? 0 : 6) + type];
+    }
+
+    // Cut the sheet into the 12 pieces and scale them to a size. The columns of
+    // the sheet follow the order of the piece types, white on the top row.
+    private static BufferedImage[] slice(int size) {
+        BufferedImage sheet = Sheet.IMAGE;
+        int pieceWidth = sheet.getWidth() / 6;
+        int pieceHeight = sheet.getHeight() / 2;
+        BufferedImage[] sprites = new BufferedImage[12];
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < 6; type++) {
+                sprites[color * 6 + type] = scale(
+                        sheet.getSubimage(pieceWidth * type, pieceHeight * color, pieceWidth, pieceHeight), size);
+            }
+        }
+        return sprites;
+    }
+
+    /**
+     * Scales an image into a square image made by createImage.
+     *
+     * @param source the image
+     * @param size   the width and height of the new image in pixels
+     * @return the new image
+     */
+    static BufferedImage scale(Image source, int size) {
+        BufferedImage image = createImage(size);
+        Graphics2D g2d = image.createGraphics();
+        g2d.drawImage(source.getScaledInstance(size, size, Image.SCALE_SMOOTH), 0, 0, null);
+        g2d.dispose();
+        return image;
+    }
+
+    /**
+     * Creates a translucent image laid out like the screen, so that drawing it
+     * needs no conversion, or a plain ARGB image without a display.
+     *
+     * @param size the width and height of the image in pixels
+     * @return the image
+     */
+    static BufferedImage createImage(int size) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return configuration.createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static BufferedImage load() {
+        URL url = SpriteAtlas.class.getResource(SHEET);
+        if (url == null) {
+            System.err.println("Error: Could not find resource '" + SHEET + "'");
+            System.err.println("Classpath: " + System.getProperty("java.class.path"));
+            return null;
+        }
+        try {
+            return ImageIO.read(url);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
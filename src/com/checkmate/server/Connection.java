@@ -0,0 +1,160 @@
+/**
+ * The Connection class serves one client of the GameServer on its own thread.
+ * It reads one command per line and answers with one line per event:
+ *
+ * CREATE [white|black]  creates a game          CREATED id color
+ * JOIN id               takes the free seat     JOINED id color, and START id
+ *                                               to both players
+ * MOVE e2e4             plays a move            OK e2e4 to the player, MOVED
+ *                                               e2e4 to the opponent
+ * RESIGN                gives the game up
+ * QUIT                  closes the connection
+ *
+ * A finished game sends GAMEOVER result reason to both players, such as
+ * "GAMEOVER 1-0 checkmate". A refused command is answered with ERROR reason.
+ */
+
+package com.checkmate.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+class Connection implements Runnable {
+
+    private final GameServer server;
+    private final Socket socket;
+    private volatile PrintWriter out;
+
+    // The game of the player and the color played, or null
+    private ServerGame game;
+    private boolean isWhite;
+
+    Connection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try (Socket socket = this.socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim()))
+                    break;
+            }
+        } catch (IOException e) {
+            // The client went away; its game is given up below
+        } finally {
+            leave("abandon");
+        }
+    }
+
+    /**
+     * Answers one command.
+     *
+     * @param line the command
+     * @return false after QUIT
+     */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0].toUpperCase()) {
+            case "CREATE": {
+                leave("resign");
+                Boolean color = tokens.length > 1 ? parseColor(tokens[1]) : Boolean.TRUE;
+                if (color == null) {
+                    send("ERROR unknown color " + tokens[1]);
+                    break;
+                }
+                game = server.createGame();
+                isWhite = game.seat(this, color);
+                send("CREATED " + game.id + " " + colorName(isWhite));
+                break;
+            }
+            case "JOIN": {
+                ServerGame joined = null;
+                try {
+                    joined = tokens.length > 1 ? server.getGame(Integer.parseInt(tokens[1])) : null;
+                } catch (NumberFormatException e) {
+                    // Answered below
+                }
+                Boolean color = joined == null || joined == game ? null : joined.seat(this, null);
+                if (color == null) {
+                    send("ERROR no free game " + (tokens.length > 1 ? tokens[1] : ""));
+                    break;
+                }
+                leave("resign");
+                game = joined;
+                isWhite = color;
+                send("JOINED " + game.id + " " + colorName(isWhite));
+                game.start();
+                break;
+            }
+            case "MOVE": {
+                if (game == null || tokens.length < 2) {
+                    send("ERROR no game");
+                    break;
+                }
+                String error = game.move(this, isWhite, tokens[1].toLowerCase());
+                if (error != null)
+                    send("ERROR " + error);
+                break;
+            }
+            case "RESIGN":
+                if (game == null)
+                    send("ERROR no game");
+                leave("resign");
+                break;
+            case "QUIT":
+                return false;
+            case "":
+                break;
+            default:
+                send("ERROR unknown command " + tokens[0]);
+        }
+        return true;
+    }
+
+    /**
+     * Sends a line to the client. Both players of a game write to each other,
+     * so the writer is locked by PrintWriter while a line is written.
+     *
+     * @param line the line
+     */
+    void send(String line) {
+        PrintWriter out = this.out;
+        if (out != null) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    // Give up the current game, if any
+    private void leave(String reason) {
+        if (game == null)
+            return;
+        game.resign(isWhite, reason);
+        server.removeGame(game);
+        game = null;
+    }
+
+    private static Boolean parseColor(String name) {
+        if (name.equalsIgnoreCase("white"))
+            return true;
+        if (name.equalsIgnoreCase("black"))
+            return false;
+        return null;
+    }
+
+    private static String colorName(boolean isWhite) {
+        return isWhite ? "white" : "black";
+    }
+}
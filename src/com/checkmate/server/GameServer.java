@@ -0,0 +1,147 @@
+/**
+ * The GameServer class hosts many games at once without Swing. Clients connect
+ * over TCP and speak the line protocol of Connection; every game has its own
+ * GameState, so the games do not share anything but the JVM.
+ *
+ * Every connection is served by its own thread, blocking on its socket. On a
+ * JVM with virtual threads (Java 21 and later) these are virtual threads, so
+ * thousands of idle players cost little; on older JVMs a pool of platform
+ * threads is used instead. The virtual thread executor is looked up by
+ * reflection, so the game still builds for older releases.
+ *
+ * Usage: Main --server [--port N]
+ */
+
+package com.checkmate.server;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7878;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = newThreadPerTaskExecutor();
+    private final Map<Integer, ServerGame> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    /**
+     * Opens the server on a port of the local machine.
+     *
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public GameServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.err.println("Usage: --server [--port N]");
+                System.exit(2);
+            }
+        }
+        GameServer server = new GameServer(port);
+        System.out.println("Listening on port " + server.getPort() + " with "
+                + (hasVirtualThreads() ? "virtual threads" : "platform threads"));
+        server.serve();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(new Connection(this, socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed())
+                    e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Accepts connections on a thread of its own.
+     *
+     * @return the thread
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::serve, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    ServerGame createGame() {
+        ServerGame game = new ServerGame(nextId.getAndIncrement());
+        games.put(game.id, game);
+        return game;
+    }
+
+    ServerGame getGame(int id) {
+        return games.get(id);
+    }
+
+    void removeGame(ServerGame game) {
+        if (game.isOver())
+            games.remove(game.id, game);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates an executor starting a new thread for every task: a virtual
+     * thread when the JVM has them, or else a platform thread of a cached pool.
+     *
+     * @return the executor
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * The ServerGame class is one game hosted by the GameServer: its own GameState
+ * and the connections of its two players. The connection threads of both
+ * players reach it, so every change is made under its lock; a ReentrantLock
+ * rather than synchronized, which would pin a virtual thread to its carrier.
+ */
+
+package com.checkmate.server;
+
+import com.checkmate.core.Bitboard;
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameResult;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.pieces.Piece;
+import java.util.concurrent.locks.ReentrantLock;
+
+class ServerGame {
+
+    final int id;
+
+    private final GameState state = new GameState();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // The players, or null for a seat not taken yet
+    private Connection white;
+    private Connection black;
+
+    private boolean over;
+
+    ServerGame(int id) {
+        this.id = id;
+        Fen.load(state, Fen.START_POSITION);
+    }
+
+    /**
+     * Seats a player.
+     *
+     * @param player  the connection of the player
+     * @param isWhite the color wanted, or null for the free one
+     * @return the color given, or null if no seat is free
+     */
+    Boolean seat(Connection player, Boolean isWhite) {
+        lock.lock();
+        try {
+            if (over)
+                return null;
+            if (white == null && (isWhite == null || isWhite)) {
+                white = player;
+                return true;
+            }
+            if (black == null && (isWhite == null || !isWhite)) {
+                black = player;
+                return false;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells both players that the game begins, once the second one is seated.
+     */
+    void start() {
+        lock.lock();
+        try {
+            if (white != null && black != null && !over) {
+                white.send("START " + id);
+                black.send("START " + id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Plays a move for a player, checked with the rules of the game, and tells
+     * both players.
+     *
+     * @param player  the connection of the player
+     * @param isWhite the color of the player
+     * @param name    the move in coordinate notation, such as "e2e4" or
+     *                "a7a8n"
+     * @return null if the move was played, or the reason it was refused
+     */
+    String move(Connection player, boolean isWhite, String name) {
+        lock.lock();
+        try {
+            if (over)
+                return "game over";
+            if (white == null || black == null)
+                return "waiting for an opponent";
+            if (state.isWhiteTurn() != isWhite)
+                return "not your turn";
+
+            Move move = parse(name);
+            if (move == null || !state.isValidMove(move))
+                return "illegal move " + name;
+            state.makeMove(move);
+
+            player.send("OK " + name);
+            opponent(isWhite).send("MOVED " + name);
+
+            GameResult result = state.getResult();
+            if (result.isOver())
+                end(result.score, result.reason);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the game with a player giving up, or leaving.
+     *
+     * @param isWhite the color of the player
+     * @param reason  why the game ended, such as "resign"
+     */
+    void resign(boolean isWhite, String reason) {
+        lock.lock();
+        try {
+            if (!over)
+                end(isWhite ? "0-1" : "1-0", reason);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isOver() {
+        lock.lock();
+        try {
+            return over;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Read a move in coordinate notation into a Move, or null if it does not
+    // name a piece of the player to move
+    private Move parse(String name) {
+        if (name.length() != 4 && name.length() != 5)
+            return null;
+        int from, to;
+        try {
+            from = Bitboard.parseSquare(name.substring(0, 2));
+            to = Bitboard.parseSquare(name.substring(2, 4));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Piece piece = state.getPiece(from & 7, from >>> 3);
+        if (!state.validTurn(piece))
+            return null;
+        int promotion = Piece.QUEEN;
+        if (name.length() == 5) {
+            promotion = "qbnr".indexOf(name.charAt(4)) + Piece.QUEEN;
+            if (promotion < Piece.QUEEN)
+                return null;
+        }
+        return new Move(state, piece, to & 7, to >>> 3, promotion);
+    }
+
+    private Connection opponent(boolean isWhite) {
+        return isWhite ? black : white;
+    }
+
+    private void end(String result, String reason) {
+        over = true;
+        String line = "GAMEOVER " + result + " " + reason;
+        if (white != null)
+            white.send(line);
+        if (black != null)
+            black.send(line);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * The ArchiveBench class compares scanning the same games in PGN and in a
+ * binary game archive: it replays every game of both files to its last move
+ * and reports the time and the games per second of each, best of a few
+ * rounds, and the size of each file. The archive is made from the PGN file
+ * with --make-archive.
+ *
+ * Usage: Main --archive-bench PGN ARCHIVE [--rounds N]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.archive.GameArchive;
+import com.checkmate.core.GameState;
+import com.checkmate.pgn.PgnGame;
+import com.checkmate.pgn.PgnReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ArchiveBench {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: --archive-bench PGN ARCHIVE [--rounds N]");
+            System.exit(2);
+        }
+        Path pgn = Paths.get(args[0]);
+        Path archiveFile = Paths.get(args[1]);
+        int rounds = 3;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--rounds")) {
+                rounds = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+        GameArchive archive = GameArchive.open(archiveFile);
+
+        long pgnBest = Long.MAX_VALUE;
+        long archiveBest = Long.MAX_VALUE;
+        long pgnMoves = 0;
+        long archiveMoves = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            pgnMoves = scanPgn(pgn);
+            pgnBest = Math.min(pgnBest, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            archiveMoves = scanArchive(archive);
+            archiveBest = Math.min(archiveBest, System.nanoTime() - start);
+        }
+        if (pgnMoves != archiveMoves)
+            System.out.println("The files differ: " + pgnMoves + " moves in PGN, " + archiveMoves + " in the archive");
+
+        int games = archive.size();
+        System.out.printf("PGN      %12d bytes  %8.3f s  %10.0f games/s%n", Files.size(pgn), pgnBest / 1e9,
+                games / (pgnBest / 1e9));
+        System.out.printf("archive  %12d bytes  %8.3f s  %10.0f games/s%n", Files.size(archiveFile),
+                archiveBest / 1e9, games / (archiveBest / 1e9));
+        System.out.printf("%.1fx smaller, %.1fx faster to scan%n", (double) Files.size(pgn) / Files.size(archiveFile),
+                (double) pgnBest / archiveBest);
+    }
+
+    // Read and replay every valid game of a PGN file, counting the moves
+    private static long scanPgn(Path file) throws IOException {
+        long moves = 0;
+        try (PgnReader reader = new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                try {
+                    moves += game.replay().getUndoCount();
+                } catch (IllegalArgumentException e) {
+                    // Left out of the archive too
+                }
+            }
+        }
+        return moves;
+    }
+
+    // Replay every game of an archive, counting the moves
+    private static long scanArchive(GameArchive archive) {
+        long moves = 0;
+        for (int game = 0; game < archive.size(); game++) {
+            GameState state = archive.replay(game, archive.plies(game));
+            moves += state.getUndoCount();
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * The ArchiveMaker class imports the games of a PGN file into a binary game
+ * archive. Games whose moves are not valid are left out and reported.
+ *
+ * Usage: Main --make-archive PGN ARCHIVE
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.archive.GameArchiveWriter;
+import com.checkmate.pgn.PgnGame;
+import com.checkmate.pgn.PgnReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ArchiveMaker {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: --make-archive PGN ARCHIVE");
+            System.exit(2);
+        }
+        Path pgn = Paths.get(args[0]);
+        Path archive = Paths.get(args[1]);
+
+        long start = System.nanoTime();
+        int games = 0;
+        int skipped = 0;
+        try (PgnReader reader = new PgnReader(Files.newBufferedReader(pgn, StandardCharsets.UTF_8));
+                GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                games++;
+                try {
+                    writer.add(game);
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    System.err.println("Game " + games + ": " + e.getMessage());
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games archived, %d skipped, in %.2f s: %d bytes of PGN, %d bytes of archive%n",
+                games - skipped, skipped, seconds, Files.size(pgn), Files.size(archive));
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * The BitbaseMaker class computes the endgame tables of Bitbase ahead of time,
+ * so no game waits for them, and reports how many positions of each the
+ * stronger side wins.
+ *
+ * Usage: Main --bitbases
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Bitbase;
+
+public class BitbaseMaker {
+
+    public static void main(String[] args) {
+        for (int[] ending : Bitbase.ENDINGS) {
+            long start = System.nanoTime();
+            Bitbase table = Bitbase.table(ending);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%-5s %8d ms  won with the stronger side to move %9d, with the lone King to move %9d%n",
+                    table.name, millis, table.wins(true), table.wins(false));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * The BookMaker class writes an opening book for OpeningBook from lines of
+ * moves: every line is one game from the starting position, its moves in
+ * coordinate notation separated by spaces, such as "e2e4 e7e5 g1f3". The
+ * weight of a move in a position is the number of lines that play it there.
+ *
+ * Usage: Main --make-book LINES BOOK [--plies N]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.engine.OpeningBook;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookMaker {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: --make-book LINES BOOK [--plies N]");
+            System.exit(2);
+        }
+        Path lines = Paths.get(args[0]);
+        Path book = Paths.get(args[1]);
+        int plies = 20;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--plies")) {
+                plies = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        // Count the lines playing each move in each position, keyed by the
+        // position key and the move field
+        Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+        int games = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(lines)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                GameState state = new GameState();
+                Fen.load(state, Fen.START_POSITION);
+                String[] tokens = line.split("\\s+");
+                for (int ply = 0; ply < tokens.length && ply < plies; ply++) {
+                    int move = Move.parse(state, tokens[ply]);
+                    if (move == 0) {
+                        System.err.println("Line " + lineNumber + ": illegal move " + tokens[ply]);
+                        break;
+                    }
+                    counts.computeIfAbsent(state.positionKey(), key -> new HashMap<>())
+                            .merge(OpeningBook.toField(state, move), 1, Integer::sum);
+                    state.makeMove(move);
+                }
+                games++;
+            }
+        }
+
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> position : counts.entrySet())
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet())
+                entries.add(new long[] { position.getKey(), move.getKey(), Math.min(move.getValue(), 0xFFFF) });
+        entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(book));
+                DataOutputStream out = new DataOutputStream(file)) {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt(0);
+            }
+        }
+        System.out.println(games + " lines, " + counts.size() + " positions, " + entries.size() + " entries written to "
+                + book);
+    }
+}
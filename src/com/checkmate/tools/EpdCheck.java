@@ -0,0 +1,140 @@
+/**
+ * The EpdCheck class loads every position of an EPD (or FEN) file, one per
+ * line, and runs the check and game-over detection on it. The file is read by
+ * one thread and the positions are set up in batches on a ForkJoinPool, each
+ * worker loading its batch into one reused game, so millions of positions load
+ * in seconds. It reports the positions that are checks, mates and stalemates,
+ * the lines that could not be read, and the positions loaded per second.
+ *
+ * Usage: Main --epd FILE [--threads N]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class EpdCheck {
+
+    // Lines handed to a worker at once
+    private static final int BATCH_SIZE = 4096;
+
+    // Batches read ahead of the workers, per worker
+    private static final int BATCHES_IN_FLIGHT = 4;
+
+    // Errors kept for the report, the ones of the first lines
+    private static final int MAX_ERRORS = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: --epd FILE [--threads N]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        Counts counts = new Counts();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Semaphore slots = new Semaphore(threads * BATCHES_IN_FLIGHT);
+        // One game and one move buffer per worker, reused for every position
+        ThreadLocal<GameState> games = ThreadLocal.withInitial(GameState::new);
+        ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[GameState.MAX_POSITION_MOVES]);
+
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] batch = new String[BATCH_SIZE];
+            int size = 0;
+            int lineNumber = 0;
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null)
+                    batch[size++] = line;
+                if (size == BATCH_SIZE || (line == null && size > 0)) {
+                    String[] lines = batch;
+                    int count = size;
+                    int firstLine = lineNumber + 1;
+                    slots.acquire();
+                    pool.execute(() -> {
+                        try {
+                            check(games.get(), buffers.get(), lines, count, firstLine, counts);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                    lineNumber += size;
+                    batch = new String[BATCH_SIZE];
+                    size = 0;
+                }
+                if (line == null)
+                    break;
+            }
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        counts.errors.entrySet().stream().limit(MAX_ERRORS)
+                .forEach(error -> System.out.println("Line " + error.getKey() + ": " + error.getValue()));
+        long positions = counts.positions.sum();
+        System.out.printf("%d positions, %d invalid: %d checks, %d mates, %d stalemates%n", positions,
+                counts.invalid.sum(), counts.checks.sum(), counts.mates.sum(), counts.stalemates.sum());
+        System.out.printf("%.2f s (%.0f positions/s) on %d threads%n", seconds, positions / seconds, threads);
+    }
+
+    // Load and check the positions of one batch of lines
+    private static void check(GameState state, int[] moves, String[] lines, int count, int firstLine,
+            Counts counts) {
+        for (int i = 0; i < count; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            try {
+                Fen.loadEpd(state, line);
+            } catch (IllegalArgumentException e) {
+                counts.invalid.increment();
+                if (counts.errors.size() < MAX_ERRORS)
+                    counts.errors.put(firstLine + i, e.getMessage());
+                continue;
+            }
+            counts.positions.increment();
+            boolean inCheck = state.isInCheck();
+            if (inCheck)
+                counts.checks.increment();
+            if (state.generateValidMoves(moves) == 0)
+                (inCheck ? counts.mates : counts.stalemates).increment();
+        }
+    }
+
+    /**
+     * The totals of the check, shared by the workers.
+     */
+    static class Counts {
+        final LongAdder positions = new LongAdder();
+        final LongAdder invalid = new LongAdder();
+        final LongAdder checks = new LongAdder();
+        final LongAdder mates = new LongAdder();
+        final LongAdder stalemates = new LongAdder();
+        final Map<Integer, String> errors = new ConcurrentSkipListMap<>();
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * The Perft class counts the leaf nodes of the move tree of a position to a
+ * given depth, using the same rules as the game (GameState.generateValidMoves,
+ * makeMove and unmakeMove). Comparing the counts with known values proves the
+ * move generation right, and timing them measures its speed.
+ *
+ * Usage: Main --perft [--fen FEN] [--depth N] [--divide] [--threads N]
+ * Without a FEN, the reference positions are run and checked, unless --divide
+ * asks for the count of every move of the starting position.
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Perft {
+
+    /**
+     * A reference position and its node counts, starting at depth 1. The
+     * pieces of this game do not all move as in orthodox chess (the Knight leaps
+     * two and three tiles, the Bishop jumps up to three tiles diagonally or steps
+     * sideways, pawns also take straight ahead), so the counts are those of
+     * these rules and differ from the published ones for the same positions.
+     */
+    static class Reference {
+        final String name;
+        final String fen;
+        final long[] nodes;
+
+        Reference(String name, String fen, long... nodes) {
+            this.name = name;
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+    }
+
+    static final Reference[] REFERENCES = {
+            new Reference("start", Fen.START_POSITION, 26, 676, 18816, 517770),
+            new Reference("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    50, 1923, 93205),
+            new Reference("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 178, 2635, 37241),
+            // Without the Knight of h6, which checks the black King from there
+            new Reference("position 4", "r3k2r/Pppp1ppp/1b3nb1/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    41, 1781, 67652, 2968450),
+            new Reference("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    48, 1506, 65040),
+    };
+
+    public static void main(String[] args) throws Exception {
+        String fen = null;
+        int depth = 4;
+        int threads = 1;
+        boolean divide = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":
+                    fen = args[++i];
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--divide":
+                    divide = true;
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: --perft [--fen FEN] [--depth N] [--divide] [--threads N]");
+                    System.exit(2);
+            }
+        }
+
+        if (fen == null && !divide)
+            System.exit(runReferences(threads) ? 0 : 1);
+        if (fen == null)
+            fen = Fen.START_POSITION;
+
+        GameState state = new GameState();
+        Fen.load(state, fen);
+        long start = System.nanoTime();
+        long nodes = divide || threads > 1 ? divide(state, depth, threads, divide) : perft(state, depth);
+        report(fen, depth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the leaf nodes of the move tree of a game.
+     *
+     * @param state the game, left unchanged when the count returns
+     * @param depth the depth of the tree in half-moves
+     * @return the number of leaf nodes
+     */
+    public static long perft(GameState state, int depth) {
+        if (depth == 0)
+            return 1;
+        return perft(state, depth, new int[depth][GameState.MAX_POSITION_MOVES]);
+    }
+
+    private static long perft(GameState state, int depth, int[][] moves) {
+        int[] list = moves[depth - 1];
+        int count = state.generateValidMoves(list);
+        if (depth == 1)
+            return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            state.makeMove(list[i]);
+            nodes += perft(state, depth - 1, moves);
+            state.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below every root move, each root move on a copy of
+     * the game run by a pool of threads.
+     *
+     * @param state   the game
+     * @param depth   the depth of the tree in half-moves
+     * @param threads the number of threads
+     * @param print   whether to print the count of every root move
+     * @return the total number of leaf nodes
+     */
+    public static long divide(GameState state, int depth, int threads, boolean print) throws Exception {
+        if (depth == 0)
+            return 1;
+        int[] moves = new int[GameState.MAX_POSITION_MOVES];
+        int count = state.generateValidMoves(moves);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                GameState copy = state.copy();
+                int move = moves[i];
+                results.add(pool.submit(() -> {
+                    copy.makeMove(move);
+                    return perft(copy, depth - 1);
+                }));
+            }
+
+            long nodes = 0;
+            for (int i = 0; i < count; i++) {
+                long moveNodes = results.get(i).get();
+                if (print)
+                    System.out.println(Move.toString(moves[i]) + ": " + moveNodes);
+                nodes += moveNodes;
+            }
+            return nodes;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Run the reference positions to their last known depth and check the counts
+    private static boolean runReferences(int threads) throws Exception {
+        boolean passed = true;
+        for (Reference reference : REFERENCES) {
+            GameState state = new GameState();
+            Fen.load(state, reference.fen);
+            for (int depth = 1; depth <= reference.nodes.length; depth++) {
+                long start = System.nanoTime();
+                long nodes = threads > 1 ? divide(state, depth, threads, false) : perft(state, depth);
+                long elapsed = System.nanoTime() - start;
+                boolean ok = nodes == reference.nodes[depth - 1];
+                passed &= ok;
+                System.out.printf("%-12s depth %d: %12d nodes %8.3f s %12.0f nodes/s %s%n", reference.name, depth,
+                        nodes, elapsed / 1e9, nodes / (elapsed / 1e9),
+                        ok ? "ok" : "FAILED, expected " + reference.nodes[depth - 1]);
+            }
+        }
+        System.out.println(passed ? "All reference counts match." : "Some reference counts do not match.");
+        return passed;
+    }
+
+    private static void report(String fen, int depth, long nodes, long elapsed) {
+        System.out.println(fen);
+        System.out.printf("depth %d: %d nodes in %.3f s (%.0f nodes/s)%n", depth, nodes, elapsed / 1e9,
+                nodes / (elapsed / 1e9));
+    }
+}
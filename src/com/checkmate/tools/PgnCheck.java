@@ -0,0 +1,90 @@
+/**
+ * The PgnCheck class validates every game of a PGN file: the file is streamed
+ * by one reader while the games are replayed on a ForkJoinPool, one task per
+ * game. It reports the number of valid and invalid games, the first errors,
+ * and the games checked per minute.
+ *
+ * Usage: Main --pgn-check FILE [--threads N]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.pgn.PgnGame;
+import com.checkmate.pgn.PgnReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PgnCheck {
+
+    // Errors kept for the report, the ones of the first games
+    private static final int MAX_ERRORS = 10;
+
+    // Games read ahead of the workers, per worker
+    private static final int GAMES_IN_FLIGHT = 64;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: --pgn-check FILE [--threads N]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        // The reader waits for a free slot so a large file is never held in
+        // memory at once
+        Semaphore slots = new Semaphore(threads * GAMES_IN_FLIGHT);
+        AtomicInteger valid = new AtomicInteger();
+        AtomicInteger invalid = new AtomicInteger();
+        Map<Integer, String> errors = new ConcurrentSkipListMap<>();
+
+        long start = System.nanoTime();
+        int games = 0;
+        try (PgnReader reader = new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                int number = ++games;
+                PgnGame next = game;
+                slots.acquire();
+                pool.execute(() -> {
+                    try {
+                        next.replay();
+                        valid.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // A game the replay fails on for any reason is invalid
+                        invalid.incrementAndGet();
+                        if (number <= MAX_ERRORS || errors.size() < MAX_ERRORS)
+                            errors.put(number, e instanceof IllegalArgumentException ? e.getMessage() : e.toString());
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        errors.entrySet().stream().limit(MAX_ERRORS)
+                .forEach(error -> System.out.println("Game " + error.getKey() + ": " + error.getValue()));
+        System.out.printf("%d games: %d valid, %d invalid in %.2f s (%.0f games/min) on %d threads%n", games,
+                valid.get(), invalid.get(), seconds, games / seconds * 60, threads);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * The SearchBench class measures how the Lazy SMP search scales with threads:
+ * it searches a set of positions to a fixed depth with 1, 2, 4, ... threads and
+ * reports the time to reach the depth, the speedup over one thread, the nodes
+ * per second and the share of beta cutoffs made by the first move searched.
+ *
+ * Usage: Main --search-bench [--depth N] [--threads MAX] [--hash MB]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import com.checkmate.engine.ParallelSearch;
+import com.checkmate.engine.SearchResult;
+import com.checkmate.engine.TranspositionTable;
+
+public class SearchBench {
+
+    static final String[] POSITIONS = {
+            Fen.START_POSITION,
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+    };
+
+    public static void main(String[] args) {
+        int depth = 5;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int hash = 64;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    maxThreads = Integer.parseInt(args[++i]);
+                    break;
+                case "--hash":
+                    hash = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: --search-bench [--depth N] [--threads MAX] [--hash MB]");
+                    System.exit(2);
+            }
+        }
+
+        TranspositionTable table = new TranspositionTable(hash);
+        double baseMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long millis = 0;
+            long nodes = 0;
+            long cutoffs = 0;
+            long firstMoveCutoffs = 0;
+            for (String fen : POSITIONS) {
+                GameState state = new GameState();
+                Fen.load(state, fen);
+                table.clear();
+                long start = System.nanoTime();
+                SearchResult result = new ParallelSearch(state, table, threads).search(depth, 0, 0);
+                millis += (System.nanoTime() - start) / 1_000_000;
+                nodes += result.nodes;
+                cutoffs += result.cutoffs;
+                firstMoveCutoffs += result.firstMoveCutoffs;
+            }
+            if (threads == 1)
+                baseMillis = Math.max(millis, 1);
+            System.out.printf("threads %3d: depth %d in %7d ms  speedup %5.2f  %10.0f nodes/s"
+                    + "  first-move cutoffs %5.1f%%%n", threads, depth, millis, baseMillis / Math.max(millis, 1),
+                    nodes / (Math.max(millis, 1) / 1000.0), cutoffs == 0 ? 0 : 100.0 * firstMoveCutoffs / cutoffs);
+            if (threads < maxThreads && threads * 2 > maxThreads)
+                threads = maxThreads / 2;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * The ServerLoad class measures the GameServer under load: it connects N
+ * clients in pairs, each pair plays one game of random valid moves, and it
+ * reports the round-trip time of a move (from sending MOVE to reading OK) at
+ * the 50th and 99th percentiles. Without a port it starts a server in the same
+ * JVM on a free port.
+ *
+ * Usage: Main --server-load [--clients N] [--moves N] [--host HOST] [--port N]
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.server.GameServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class ServerLoad {
+
+    public static void main(String[] args) throws Exception {
+        int clients = 100;
+        int moves = 40;
+        String host = "localhost";
+        int port = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--moves":
+                    moves = Integer.parseInt(args[++i]);
+                    break;
+                case "--host":
+                    host = args[++i];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: --server-load [--clients N] [--moves N] [--host HOST] [--port N]");
+                    System.exit(2);
+            }
+        }
+        clients += clients % 2;
+
+        GameServer server = null;
+        if (port == 0) {
+            server = new GameServer(0);
+            server.start();
+            port = server.getPort();
+        }
+
+        ExecutorService executor = GameServer.newThreadPerTaskExecutor();
+        List<Future<long[]>> results = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int pair = 0; pair < clients / 2; pair++) {
+            // The creator tells the joiner the id of its game
+            CompletableFuture<Integer> gameId = new CompletableFuture<>();
+            Client white = new Client(host, port, moves, pair, gameId, true);
+            Client black = new Client(host, port, moves, pair, gameId, false);
+            results.add(executor.submit(white::play));
+            results.add(executor.submit(black::play));
+        }
+
+        long[][] times = new long[clients][];
+        int total = 0;
+        for (int i = 0; i < clients; i++) {
+            times[i] = results.get(i).get();
+            total += times[i].length;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        if (server != null)
+            server.close();
+
+        long[] all = new long[total];
+        int count = 0;
+        for (long[] clientTimes : times) {
+            System.arraycopy(clientTimes, 0, all, count, clientTimes.length);
+            count += clientTimes.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d games, %d moves in %.2f s (%.0f moves/s) on %s%n", clients, clients / 2,
+                total, seconds, total / seconds,
+                GameServer.hasVirtualThreads() ? "virtual threads" : "platform threads");
+        if (total > 0)
+            System.out.printf("move round trip: p50 %.3f ms  p99 %.3f ms  max %.3f ms%n", percentile(all, 50) / 1e6,
+                    percentile(all, 99) / 1e6, all[total - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * One simulated player. It keeps its own copy of the game to choose valid
+     * moves and resigns once it has made its share of the moves.
+     */
+    static class Client {
+        final String host;
+        final int port;
+        final int moves;
+        final Random random;
+        final CompletableFuture<Integer> gameId;
+        final boolean isWhite;
+
+        Client(String host, int port, int moves, int seed, CompletableFuture<Integer> gameId, boolean isWhite) {
+            this.host = host;
+            this.port = port;
+            this.moves = moves;
+            this.random = new Random(seed * 2L + (isWhite ? 0 : 1));
+            this.gameId = gameId;
+            this.isWhite = isWhite;
+        }
+
+        /**
+         * Plays a game.
+         *
+         * @return the round-trip times of the moves made, in nanoseconds
+         * @throws Exception if the connection fails or the server answers
+         *                   something unexpected
+         */
+        long[] play() throws Exception {
+            try (Socket socket = new Socket(host, port);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    PrintWriter out = new PrintWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                socket.setTcpNoDelay(true);
+                GameState state = new GameState();
+                Fen.load(state, Fen.START_POSITION);
+                long[] times = new long[moves];
+                int made = 0;
+
+                if (isWhite) {
+                    out.println("CREATE white");
+                    String[] created = expect(in, "CREATED");
+                    gameId.complete(Integer.parseInt(created[1]));
+                } else {
+                    out.println("JOIN " + gameId.get());
+                    expect(in, "JOINED");
+                }
+                expect(in, "START");
+
+                boolean myTurn = isWhite;
+                while (true) {
+                    if (myTurn) {
+                        if (made == moves) {
+                            out.println("RESIGN");
+                            expect(in, "GAMEOVER");
+                            break;
+                        }
+                        int[] valid = new int[GameState.MAX_POSITION_MOVES];
+                        int count = state.generateValidMoves(valid);
+                        if (count == 0) {
+                            // Mated or stalemated by the last move
+                            expect(in, "GAMEOVER");
+                            break;
+                        }
+                        String name = Move.toString(valid[random.nextInt(count)]);
+                        long sent = System.nanoTime();
+                        out.println("MOVE " + name);
+                        String[] answer = expect(in, "OK", "GAMEOVER");
+                        if (answer[0].equals("GAMEOVER"))
+                            break;
+                        times[made++] = System.nanoTime() - sent;
+                        state.makeMove(Move.parse(state, name));
+                        myTurn = false;
+                    } else {
+                        String[] answer = expect(in, "MOVED", "GAMEOVER");
+                        if (answer[0].equals("GAMEOVER"))
+                            break;
+                        state.makeMove(Move.parse(state, answer[1]));
+                        myTurn = true;
+                    }
+                }
+                out.println("QUIT");
+                return Arrays.copyOf(times, made);
+            }
+        }
+
+        // Read the next line and check it starts with one of the words
+        private static String[] expect(BufferedReader in, String... words) throws IOException {
+            String line = in.readLine();
+            if (line == null)
+                throw new IOException("Connection closed, expected " + String.join(" or ", words));
+            String[] tokens = line.split(" ");
+            for (String word : words)
+                if (tokens[0].equals(word))
+                    return tokens;
+            throw new IOException("Expected " + String.join(" or ", words) + ", read " + line);
+        }
+    }
+}
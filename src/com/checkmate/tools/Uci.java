@@ -0,0 +1,290 @@
+/**
+ * The Uci class plays the game over the UCI protocol on standard input and
+ * output, without Swing, so the engine can run under tournament managers and
+ * GUIs. It reads commands on the main thread and searches on a worker thread,
+ * so isready is answered and stop is acted on while a search runs.
+ *
+ * The moves of this game are written in coordinate notation as in UCI, but the
+ * pieces do not move as in orthodox chess, so the other engine or GUI has to
+ * know the same rules.
+ *
+ * Usage: Main --uci
+ */
+
+package com.checkmate.tools;
+
+import com.checkmate.core.Fen;
+import com.checkmate.core.GameState;
+import com.checkmate.core.Move;
+import com.checkmate.engine.ParallelSearch;
+import com.checkmate.engine.SearchResult;
+import com.checkmate.engine.TranspositionTable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+public class Uci {
+
+    // Time kept back from every move for the answer to reach the GUI
+    private static final long MOVE_OVERHEAD = 20;
+
+    // Moves the remaining time is spread over when the GUI does not say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private static final int MAX_HASH = 4096;
+    private static final int MAX_THREADS = 256;
+
+    private final PrintStream out;
+    private final GameState state = new GameState();
+    private TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES);
+    private int hash = TranspositionTable.DEFAULT_MEGABYTES;
+    private int threads = 1;
+
+    // The running search, its thread, and the latch an infinite search waits
+    // on before it answers
+    private ParallelSearch search;
+    private Thread worker;
+    private CountDownLatch stopped;
+
+    public Uci(PrintStream out) {
+        this.out = out;
+        Fen.load(state, Fen.START_POSITION);
+    }
+
+    public static void main(String[] args) throws IOException {
+        new Uci(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    /**
+     * Answers commands until quit or the end of the input.
+     *
+     * @param in the commands, one per line
+     * @throws IOException if the input cannot be read
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line.trim()))
+                break;
+        }
+        stopSearch();
+    }
+
+    /**
+     * Answers one command.
+     *
+     * @param line the command
+     * @return false after quit
+     */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                send("id name CheckMate");
+                send("id author CheckMate contributors");
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_MEGABYTES + " min 1 max "
+                        + MAX_HASH);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                stopSearch();
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stopSearch();
+                table.clear();
+                break;
+            case "position":
+                stopSearch();
+                position(tokens);
+                break;
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+            case "stop":
+                if (search != null) {
+                    search.stop();
+                    stopped.countDown();
+                }
+                break;
+            case "quit":
+                return false;
+            default:
+                // Unknown commands are ignored, as the protocol asks
+                break;
+        }
+        return true;
+    }
+
+    // setoption name NAME value VALUE
+    private void setOption(String[] tokens) {
+        String name = null;
+        String value = null;
+        for (int i = 1; i < tokens.length - 1; i++) {
+            if (tokens[i].equals("name"))
+                name = tokens[i + 1];
+            else if (tokens[i].equals("value"))
+                value = tokens[i + 1];
+        }
+        if (name == null || value == null)
+            return;
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                int megabytes = Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value)));
+                if (megabytes != hash) {
+                    hash = megabytes;
+                    table = new TranspositionTable(hash);
+                }
+            } else if (name.equalsIgnoreCase("Threads")) {
+                threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value)));
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad value " + value + " for " + name);
+        }
+    }
+
+    // position (startpos | fen FEN) [moves MOVE...]
+    private void position(String[] tokens) {
+        int i = 1;
+        String fen = Fen.START_POSITION;
+        if (i < tokens.length && tokens[i].equals("fen")) {
+            StringBuilder builder = new StringBuilder();
+            for (i++; i < tokens.length && !tokens[i].equals("moves"); i++)
+                builder.append(builder.length() > 0 ? " " : "").append(tokens[i]);
+            fen = builder.toString();
+        } else {
+            i++;
+        }
+        try {
+            Fen.load(state, fen);
+        } catch (IllegalArgumentException e) {
+            send("info string bad fen " + fen);
+            Fen.load(state, Fen.START_POSITION);
+            return;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                int move = Move.parse(state, tokens[i]);
+                if (move == 0) {
+                    send("info string illegal move " + tokens[i]);
+                    return;
+                }
+                state.makeMove(move);
+            }
+        }
+    }
+
+    // go [wtime T] [btime T] [winc T] [binc T] [movestogo N] [movetime T]
+    // [depth N] [nodes N] [infinite]
+    private void go(String[] tokens) {
+        long time = 0, increment = 0, moveTime = 0, nodes = 0;
+        int movesToGo = 0, depth = 0;
+        boolean infinite = false;
+        boolean white = state.isWhiteTurn();
+        for (int i = 1; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            try {
+                switch (tokens[i]) {
+                    case "wtime":
+                        if (white)
+                            time = Long.parseLong(value);
+                        break;
+                    case "btime":
+                        if (!white)
+                            time = Long.parseLong(value);
+                        break;
+                    case "winc":
+                        if (white)
+                            increment = Long.parseLong(value);
+                        break;
+                    case "binc":
+                        if (!white)
+                            increment = Long.parseLong(value);
+                        break;
+                    case "movestogo":
+                        movesToGo = Integer.parseInt(value);
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(value);
+                        break;
+                    case "depth":
+                        depth = Integer.parseInt(value);
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(value);
+                        break;
+                    case "infinite":
+                        infinite = true;
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                // A bad value is left out, and the GUI still gets a move
+                send("info string bad value " + value + " for " + tokens[i]);
+            }
+        }
+
+        long budget = 0;
+        if (moveTime > 0) {
+            budget = Math.max(1, moveTime - MOVE_OVERHEAD);
+        } else if (time > 0) {
+            long share = time / (movesToGo > 0 ? movesToGo + 1 : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+            budget = Math.max(1, Math.min(share, time / 2) - MOVE_OVERHEAD);
+        }
+
+        ParallelSearch search = new ParallelSearch(state, table, threads);
+        search.setListener(this::info);
+        CountDownLatch stopped = new CountDownLatch(infinite ? 1 : 0);
+        long searchTime = budget;
+        int searchDepth = depth;
+        long searchNodes = nodes;
+        worker = new Thread(() -> {
+            SearchResult result = search.search(searchDepth, searchTime, searchNodes);
+            // An infinite search answers only when told to stop
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            send(result.bestMove == 0 ? "bestmove 0000" : "bestmove " + Move.toString(result.bestMove));
+        }, "uci-search");
+        this.search = search;
+        this.stopped = stopped;
+        worker.start();
+    }
+
+    private void info(SearchResult result) {
+        String score = result.isMate() ? "mate " + result.mateIn() : "cp " + result.score;
+        long nps = result.millis > 0 ? result.nodes * 1000 / result.millis : result.nodes;
+        send("info depth " + result.depth + " score " + score + " nodes " + result.nodes + " nps " + nps + " time "
+                + result.millis + " pv " + result.pvString());
+    }
+
+    // Stop a running search and wait for its answer
+    private void stopSearch() {
+        if (search == null)
+            return;
+        search.stop();
+        stopped.countDown();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        search = null;
+        worker = null;
+    }
+
+    private synchronized void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
@@ -1,9 +1,11 @@
 package com.checkmate.ui;
 
 import com.checkmate.core.Board;
+import com.checkmate.pieces.Piece;
+import com.checkmate.pieces.PieceIcons;
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.List;
 
 public class GameFrame extends JFrame {
     private Board board;
@@ -21,8 +23,8 @@ public class GameFrame extends JFrame {
     public static String p2NameText = "Player 2";
     public static String theme = "Blue";
 
-    public static String[] p1EatenPieces = new String[16];
-    public static String[] p2EatenPieces = new String[16];
+    // Whether player 2 is the computer
+    public static boolean vsComputer = false;
 
     public GameFrame() {
         // Default constructor
@@ -46,6 +48,8 @@ public class GameFrame extends JFrame {
         JPanel boardContainer = new JPanel(new GridBagLayout());
         boardContainer.setOpaque(false);
         board = new Board();
+        if (vsComputer)
+            board.setComputer(false);
         boardContainer.add(board);
         add(boardContainer, BorderLayout.CENTER);
 
@@ -158,59 +162,32 @@ public class GameFrame extends JFrame {
         turnLabel.setForeground(isWhiteTurn ? Theme.TEXT_WHITE : Theme.TEXT_GRAY);
     }
 
-    public void drawEatenPiece(String eatenPiece, boolean isWhiteGetter) {
+    /**
+     * Shows the pieces a player has taken. Only the pieces taken since the
+     * panel was last drawn are added to it, one label each; the panel is built
+     * again only when the list got shorter, as after a new game.
+     *
+     * @param eatenPieces   the pieces taken by the player, in the order taken
+     * @param isWhiteGetter the color of the player
+     */
+    public void drawEatenPiece(List<Piece> eatenPieces, boolean isWhiteGetter) {
         JPanel targetPanel = isWhiteGetter ? p1EatenPanel : p2EatenPanel;
-        String[] pieces = isWhiteGetter ? p1EatenPieces : p2EatenPieces;
-
-        targetPanel.removeAll();
-
-        for (String p : pieces) {
-            if (p != null) {
-                // If isWhiteGetter is true (Player 1/White captured), they captured a BLACK
-                // piece.
-                String color = isWhiteGetter ? "black" : "white";
-
-                // Load larger icon for display (40x40) - logic similar to Board styling
-                // Assuming images are available. If not, fallback to existing or scale up.
-                // The icons/Pieces/color/Name.png path pattern matches Board usage?
-                // Board uses sprite sheet, but here we load individual files?
-                // Original code: "resources/images/Pieces/" + color + "/" + p + ".png"
-                // This implies individual files exist. Let's verify resource path in previous
-                // steps or assume yes.
-                // Actually, standardizing on valid resource loading:
-                try {
-                    java.net.URL url = getClass().getResource("/images/Pieces/" + color + "/" + p + ".png");
-                    // Note: If distinct images don't exist and only sprite sheet exists, this will
-                    // fail.
-                    // The original code tried to load from file paths.
-                    // I should check if these individual images exist.
-                    // If not, I'll need to crop from sprite sheet or use existing found pieces.png
-                    // logic.
-                    // Let's assume for now we might need to rely on the sprite sheet if that's the
-                    // only asset.
-                    // But the user's prev code had this. Let's assume they have the files or I need
-                    // to handle it.
-                    // Wait, the "fix" for Piece.java used "pieces.png".
-                    // If individual files are missing, this feature breaks.
-                    // Safe approach: scalable drawing or check list_dir.
-                    // I will assume for now files might be missing and use a placeholder or try to
-                    // load.
-
-                    if (url != null) {
-                        ImageIcon icon = new ImageIcon(url);
-                        Image img = icon.getImage().getScaledInstance(35, 35, Image.SCALE_SMOOTH);
-                        JLabel iconLabel = new JLabel(new ImageIcon(img));
-                        targetPanel.add(iconLabel);
-                    } else {
-                        // Fallback text if image missing
-                        JLabel label = new JLabel(p.substring(0, 1));
-                        label.setForeground(Theme.TEXT_WHITE);
-                        label.setFont(Theme.FONT_BUTTON);
-                        targetPanel.add(label);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+
+        if (targetPanel.getComponentCount() > eatenPieces.size())
+            targetPanel.removeAll();
+
+        for (int i = targetPanel.getComponentCount(); i < eatenPieces.size(); i++) {
+            Piece eatenPiece = eatenPieces.get(i);
+            // The icons are shared by every panel and cached by color and size
+            ImageIcon icon = PieceIcons.icon(eatenPiece.type, eatenPiece.isWhite, 35);
+            if (icon != null) {
+                targetPanel.add(new JLabel(icon));
+            } else {
+                // Fallback text if image missing
+                JLabel label = new JLabel(eatenPiece.name.substring(0, 1));
+                label.setForeground(Theme.TEXT_WHITE);
+                label.setFont(Theme.FONT_BUTTON);
+                targetPanel.add(label);
             }
         }
 
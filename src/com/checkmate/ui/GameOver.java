@@ -1,5 +1,6 @@
 package com.checkmate.ui;
 
+import com.checkmate.core.GameResult;
 import com.checkmate.core.Main;
 import javax.swing.*;
 import java.awt.*;
@@ -14,7 +15,13 @@ public class GameOver extends JFrame implements ActionListener {
     private JButton exitButton;
     private Image backgroundImage;
 
-    public GameOver(String winner) {
+    /**
+     * Shows the end of a game.
+     *
+     * @param result how the game ended
+     * @param winner the name of the winner, or null for a draw
+     */
+    public GameOver(GameResult result, String winner) {
         setTitle("Game Over");
         setSize(400, 300);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -32,14 +39,14 @@ public class GameOver extends JFrame implements ActionListener {
         gbc.gridy = 0;
         gbc.gridwidth = 2;
 
-        JLabel titleLabel = new JLabel("Checkmate!");
+        JLabel titleLabel = new JLabel(result.title);
         titleLabel.setFont(Theme.FONT_TITLE.deriveFont(32f));
         titleLabel.setForeground(Theme.TEXT_WHITE);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         mainPanel.add(titleLabel, gbc);
 
         gbc.gridy++;
-        JLabel winnerLabel = new JLabel(winner + " Wins!");
+        JLabel winnerLabel = new JLabel(winner == null ? "Draw" : winner + " Wins!");
         winnerLabel.setFont(Theme.FONT_TITLE.deriveFont(24f));
         winnerLabel.setForeground(Theme.ACCENT_BLUE);
         winnerLabel.setHorizontalAlignment(SwingConstants.CENTER);
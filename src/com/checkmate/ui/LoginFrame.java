@@ -15,6 +15,7 @@ public class LoginFrame extends JFrame implements ActionListener {
     private final JTextField player1NameInput;
     private final JTextField player2NameInput;
     private JComboBox<String> theme;
+    private JComboBox<String> gameMode;
     private final JButton startGameButton;
 
     /**
@@ -78,6 +79,17 @@ public class LoginFrame extends JFrame implements ActionListener {
         theme.setFont(Theme.FONT_INPUT);
         mainPanel.add(theme, gbc);
 
+        // Game Mode Selection
+        gbc.gridx = 0;
+        gbc.gridy++;
+        mainPanel.add(createLabel("Game Mode:"), gbc);
+
+        gbc.gridx = 1;
+        String[] modeValues = { "Two Players", "vs Computer" };
+        gameMode = new JComboBox<>(modeValues);
+        gameMode.setFont(Theme.FONT_INPUT);
+        mainPanel.add(gameMode, gbc);
+
         // Spacer
         gbc.gridx = 0;
         gbc.gridy++;
@@ -142,8 +154,10 @@ public class LoginFrame extends JFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == startGameButton) {
+            boolean vsComputer = "vs Computer".equals(gameMode.getSelectedItem());
             String player1Name = player1NameInput.getText().isEmpty() ? "Player 1" : player1NameInput.getText();
-            String player2Name = player2NameInput.getText().isEmpty() ? "Player 2" : player2NameInput.getText();
+            String player2Name = player2NameInput.getText().isEmpty() ? (vsComputer ? "Computer" : "Player 2")
+                    : player2NameInput.getText();
             String themeChosen = (String) theme.getSelectedItem();
 
             // Map consistent names to what the GameFrame expects if needed, or update
@@ -164,6 +178,7 @@ public class LoginFrame extends JFrame implements ActionListener {
             GameFrame.p1NameText = player1Name;
             GameFrame.p2NameText = player2Name;
             GameFrame.theme = themeChosen;
+            GameFrame.vsComputer = vsComputer;
 
             GameFrame gameFrame = new GameFrame();
             Theme.setBoardTheme(themeChosen);
@@ -19,7 +19,12 @@ public class Theme {
     public static Color TILE_DARK = new Color(100, 116, 139); // Slate Blue/Gray
     public static Color MOVE_HIGHLIGHT = new Color(100, 255, 100, 150); // Transparent Green
 
+    // Counts the changes of the board colors, so a board drawn with older
+    // colors can tell it must be drawn again
+    public static int boardVersion = 0;
+
     public static void setBoardTheme(String themeName) {
+        boardVersion++;
         if (themeName.contains("Green")) {
             TILE_LIGHT = new Color(238, 238, 210);
             TILE_DARK = new Color(118, 150, 86); // Classic Chess.com Green